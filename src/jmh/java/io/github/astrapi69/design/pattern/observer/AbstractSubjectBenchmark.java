@@ -0,0 +1,137 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import io.github.astrapi69.design.pattern.observer.registry.DispatchMode;
+
+/**
+ * The class {@link AbstractSubjectBenchmark} measures the notification of the observers of an
+ * {@link AbstractSubject} over {@link AbstractSubject#setObservable(Object)} and
+ * {@link AbstractSubject#updateObservers()}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AbstractSubjectBenchmark
+{
+
+	/** The number of registered observers */
+	@Param({ "1", "10", "100", "1000", "10000", "100000" })
+	public int observerCount;
+
+	/** The dispatch mode of the subject */
+	@Param({ "SYNCHRONIZED", "COPY_ON_WRITE" })
+	public DispatchMode dispatchMode;
+
+	/** The subject under test */
+	private BenchmarkSubject subject;
+
+	/**
+	 * Creates the subject and registers the observers
+	 */
+	@Setup
+	public void setUp()
+	{
+		subject = new BenchmarkSubject(dispatchMode);
+		for (int i = 0; i < observerCount; i++)
+		{
+			subject.add(new CountingObserver());
+		}
+	}
+
+	/**
+	 * Measures {@link AbstractSubject#setObservable(Object)}
+	 *
+	 * @return the subject to prevent dead code elimination
+	 */
+	@Benchmark
+	public Object setObservable()
+	{
+		subject.setObservable(observerCount);
+		return subject;
+	}
+
+	/**
+	 * Measures {@link AbstractSubject#updateObservers()}
+	 *
+	 * @return the subject to prevent dead code elimination
+	 */
+	@Benchmark
+	public Object updateObservers()
+	{
+		subject.updateObservers();
+		return subject;
+	}
+
+	/**
+	 * The subject that is used in this benchmark
+	 */
+	static class BenchmarkSubject extends AbstractSubject<Integer, Observer<Integer>>
+	{
+
+		/**
+		 * Instantiates a new {@link BenchmarkSubject} with the given dispatch mode
+		 *
+		 * @param dispatchMode
+		 *            the dispatch mode
+		 */
+		BenchmarkSubject(final DispatchMode dispatchMode)
+		{
+			super(0, dispatchMode);
+		}
+	}
+
+	/**
+	 * An observer that only counts its updates
+	 */
+	static class CountingObserver implements Observer<Integer>
+	{
+
+		/** The number of updates */
+		int count;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void update(final Integer observable)
+		{
+			count++;
+		}
+	}
+
+}
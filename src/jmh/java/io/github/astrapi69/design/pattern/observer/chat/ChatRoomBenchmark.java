@@ -0,0 +1,127 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.chat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The class {@link ChatRoomBenchmark} measures {@link ChatRoom#setObservable(Message)}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChatRoomBenchmark
+{
+
+	/** The number of users in the chat room */
+	@Param({ "1", "10", "100", "1000", "10000", "100000" })
+	public int userCount;
+
+	/** The message that is sent in each invocation */
+	private final StringMessage message = new StringMessage("benchmark");
+
+	/** The chat room under test */
+	private ChatRoom<StringMessage> room;
+
+	/**
+	 * Creates the chat room and lets the users join
+	 */
+	@Setup
+	public void setUp()
+	{
+		room = new ChatRoom<>(message, "benchmark");
+		for (int i = 0; i < userCount; i++)
+		{
+			new CountingChatRoomUser(room, new User("user" + i, i));
+		}
+	}
+
+	/**
+	 * Clears the message history, which grows with every sent message
+	 */
+	@Setup(Level.Iteration)
+	public void clearMessageHistory()
+	{
+		room.getMessageHistory().clear();
+	}
+
+	/**
+	 * Measures {@link ChatRoom#setObservable(Message)}
+	 *
+	 * @return the chat room to prevent dead code elimination
+	 */
+	@Benchmark
+	public Object setObservable()
+	{
+		room.setObservable(message);
+		return room;
+	}
+
+	/**
+	 * A chat room user that only counts the received messages
+	 */
+	static class CountingChatRoomUser extends ChatRoomUser<StringMessage>
+	{
+
+		/** The serialVersionUID for serialization compatibility */
+		private static final long serialVersionUID = 1L;
+
+		/** The number of received messages */
+		int count;
+
+		/**
+		 * Instantiates a new {@link CountingChatRoomUser} that joins the given room
+		 *
+		 * @param room
+		 *            the chat room
+		 * @param user
+		 *            the user
+		 */
+		CountingChatRoomUser(final ChatRoom<StringMessage> room, final IUser<?> user)
+		{
+			super(room, user);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void execute()
+		{
+			count++;
+		}
+	}
+
+}
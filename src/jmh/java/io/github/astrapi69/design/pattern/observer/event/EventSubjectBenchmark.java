@@ -0,0 +1,98 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.event;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The class {@link EventSubjectBenchmark} measures {@link EventSubject#fireEvent(Object)}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventSubjectBenchmark
+{
+
+	/** The number of registered listeners */
+	@Param({ "1", "10", "100", "1000", "10000", "100000" })
+	public int listenerCount;
+
+	/** The subject under test */
+	private EventSubject<Integer> subject;
+
+	/**
+	 * Creates the subject and registers the listeners
+	 */
+	@Setup
+	public void setUp()
+	{
+		subject = new EventSubject<>(0);
+		for (int i = 0; i < listenerCount; i++)
+		{
+			subject.add(new CountingListener());
+		}
+	}
+
+	/**
+	 * Measures {@link EventSubject#fireEvent(Object)}
+	 *
+	 * @return the subject to prevent dead code elimination
+	 */
+	@Benchmark
+	public Object fireEvent()
+	{
+		subject.fireEvent(listenerCount);
+		return subject;
+	}
+
+	/**
+	 * A listener that only counts its events
+	 */
+	static class CountingListener implements EventListener<Integer>
+	{
+
+		/** The number of events */
+		int count;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onEvent(final Integer event)
+		{
+			count++;
+		}
+	}
+
+}
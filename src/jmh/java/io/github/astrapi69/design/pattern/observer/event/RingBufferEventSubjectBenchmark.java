@@ -0,0 +1,97 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.event;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.astrapi69.design.pattern.observer.dispatch.WaitStrategy;
+
+/**
+ * The class {@link RingBufferEventSubjectBenchmark} measures
+ * {@link RingBufferEventSubject#fireEvent(Object)} Every listener runs on its own thread, so the
+ * listener counts are kept small
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RingBufferEventSubjectBenchmark
+{
+
+	/** The number of registered listeners */
+	@Param({ "1", "2", "4" })
+	public int listenerCount;
+
+	/** The strategy that producers and listeners use to wait */
+	@Param({ "YIELD", "PARK" })
+	public WaitStrategy waitStrategy;
+
+	/** The subject under test */
+	private RingBufferEventSubject<Integer> subject;
+
+	/**
+	 * Creates the subject and registers the listeners
+	 */
+	@Setup
+	public void setUp()
+	{
+		subject = new RingBufferEventSubject<>(1 << 16, waitStrategy);
+		for (int i = 0; i < listenerCount; i++)
+		{
+			subject.add(new EventSubjectBenchmark.CountingListener());
+		}
+	}
+
+	/**
+	 * Stops the threads of the listeners
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		subject.close();
+	}
+
+	/**
+	 * Measures {@link RingBufferEventSubject#fireEvent(Object)}
+	 *
+	 * @return the subject to prevent dead code elimination
+	 */
+	@Benchmark
+	public Object fireEvent()
+	{
+		subject.fireEvent(listenerCount);
+		return subject;
+	}
+
+}
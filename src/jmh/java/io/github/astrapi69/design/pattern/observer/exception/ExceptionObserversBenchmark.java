@@ -0,0 +1,123 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.exception;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The class {@link ExceptionObserversBenchmark} measures
+ * {@link ExceptionObservers#fireExceptionEvent(ExceptionEvent)}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExceptionObserversBenchmark
+{
+
+	/** The number of registered listeners */
+	@Param({ "1", "10", "100", "1000", "10000", "100000" })
+	public int listenerCount;
+
+	/** The event that is fired in each invocation */
+	private final ExceptionEvent event = new ExceptionEvent(new Exception("benchmark"));
+
+	/** The listeners that were registered by this benchmark */
+	private final List<ExceptionListener> listeners = new ArrayList<>();
+
+	/** The singleton under test */
+	private ExceptionObservers exceptionObservers;
+
+	/**
+	 * Registers the listeners at the singleton
+	 */
+	@Setup
+	public void setUp()
+	{
+		exceptionObservers = ExceptionObservers.getInstance();
+		for (int i = 0; i < listenerCount; i++)
+		{
+			final CountingListener listener = new CountingListener();
+			listeners.add(listener);
+			exceptionObservers.addExceptionListener(listener);
+		}
+	}
+
+	/**
+	 * Removes the listeners from the singleton
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		for (final ExceptionListener listener : listeners)
+		{
+			exceptionObservers.removeExceptionListener(listener);
+		}
+		listeners.clear();
+	}
+
+	/**
+	 * Measures {@link ExceptionObservers#fireExceptionEvent(ExceptionEvent)}
+	 *
+	 * @return the singleton to prevent dead code elimination
+	 */
+	@Benchmark
+	public Object fireExceptionEvent()
+	{
+		exceptionObservers.fireExceptionEvent(event);
+		return exceptionObservers;
+	}
+
+	/**
+	 * A listener that only counts its events
+	 */
+	static class CountingListener implements ExceptionListener
+	{
+
+		/** The number of events */
+		int count;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onException(final ExceptionEvent event)
+		{
+			count++;
+		}
+	}
+
+}
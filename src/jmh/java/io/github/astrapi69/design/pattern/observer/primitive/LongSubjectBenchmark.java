@@ -0,0 +1,102 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.primitive;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The class {@link LongSubjectBenchmark} measures {@link LongSubject#setObservable(long)}, the gc
+ * profiler should report no allocation per operation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LongSubjectBenchmark
+{
+
+	/** The number of registered observers */
+	@Param({ "1", "10", "100", "1000", "10000", "100000" })
+	public int observerCount;
+
+	/** The subject under test */
+	private LongSubject subject;
+
+	/** The next value to publish */
+	private long value;
+
+	/**
+	 * Creates the subject and registers the observers
+	 */
+	@Setup
+	public void setUp()
+	{
+		subject = new LongSubject();
+		for (int i = 0; i < observerCount; i++)
+		{
+			subject.add(new CountingObserver());
+		}
+	}
+
+	/**
+	 * Measures {@link LongSubject#setObservable(long)}
+	 *
+	 * @return the subject to prevent dead code elimination
+	 */
+	@Benchmark
+	public Object setObservable()
+	{
+		subject.setObservable(value++);
+		return subject;
+	}
+
+	/**
+	 * An observer that only sums up its values
+	 */
+	static class CountingObserver implements LongObserver
+	{
+
+		/** The sum of the values */
+		long sum;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void update(final long observable)
+		{
+			sum += observable;
+		}
+	}
+
+}
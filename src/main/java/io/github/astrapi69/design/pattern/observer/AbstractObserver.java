@@ -27,12 +27,24 @@ package io.github.astrapi69.design.pattern.observer;
 import io.github.astrapi69.design.pattern.observer.api.ActionCommand;
 import io.github.astrapi69.design.pattern.observer.api.Observer;
 import io.github.astrapi69.design.pattern.observer.api.Subject;
+import io.github.astrapi69.design.pattern.observer.api.Versioned;
 
 /**
  * A generic implementation of the Observer pattern This abstract class implements the
  * {@link Observer} and {@link ActionCommand} interfaces, providing a basic framework for observers
  * in the Observer design pattern
  *
+ * <p>
+ * The observer registers itself at the given subject, if the subject was created with
+ * {@link io.github.astrapi69.design.pattern.observer.registry.RegistrationMode#WEAK} the observer
+ * is removed automatically as soon as it is no longer referenced elsewhere
+ * </p>
+ *
+ * <p>
+ * The current observable is published together with a version over a volatile reference, so
+ * {@link #getObservable()} never waits for an update that is in progress
+ * </p>
+ *
  * @param <T>
  *            the generic type of the observable object
  */
@@ -42,8 +54,8 @@ public abstract class AbstractObserver<T> implements Observer<T>, ActionCommand
 	/** The subject being observed */
 	protected Subject<T, Observer<T>> subject;
 
-	/** The current observable object */
-	private T observable;
+	/** The current observable object with its version */
+	private volatile Versioned<T> published;
 
 	/**
 	 * Constructor for a new observer object
@@ -54,18 +66,38 @@ public abstract class AbstractObserver<T> implements Observer<T>, ActionCommand
 	public AbstractObserver(final Subject<T, Observer<T>> subject)
 	{
 		this.subject = subject;
-		this.observable = subject.getObservable();
+		this.published = Versioned.initial(subject.getObservable());
 		this.subject.add(this);
 	}
 
 	/**
-	 * Gets the current observable object
+	 * Gets the current observable object without locking
 	 *
 	 * @return the observable object
 	 */
-	public synchronized T getObservable()
+	public T getObservable()
+	{
+		return published.getValue();
+	}
+
+	/**
+	 * Gets the version of the current observable object without locking
+	 *
+	 * @return the version that grows by one with every change
+	 */
+	public long getVersion()
+	{
+		return published.getVersion();
+	}
+
+	/**
+	 * Gets the current observable object together with its version without locking
+	 *
+	 * @return the consistent pair of the observable object and its version
+	 */
+	public Versioned<T> getVersioned()
 	{
-		return observable;
+		return published;
 	}
 
 	/**
@@ -74,7 +106,7 @@ public abstract class AbstractObserver<T> implements Observer<T>, ActionCommand
 	@Override
 	public synchronized void update(final T observable)
 	{
-		this.observable = observable;
+		this.published = published.next(observable);
 		execute();
 	}
 }
@@ -26,17 +26,52 @@ package io.github.astrapi69.design.pattern.observer;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 
 import io.github.astrapi69.design.pattern.observer.api.Observer;
 import io.github.astrapi69.design.pattern.observer.api.Subject;
+import io.github.astrapi69.design.pattern.observer.dispatch.AsyncDispatcher;
+import io.github.astrapi69.design.pattern.observer.dispatch.DispatchGuard;
+import io.github.astrapi69.design.pattern.observer.dispatch.ParallelFanOut;
+import io.github.astrapi69.design.pattern.observer.dispatch.Watchdog;
+import io.github.astrapi69.design.pattern.observer.metrics.DispatchMetrics;
+import io.github.astrapi69.design.pattern.observer.registry.DispatchMode;
+import io.github.astrapi69.design.pattern.observer.registry.ObserverRegistry;
+import io.github.astrapi69.design.pattern.observer.registry.RegistrationMode;
 import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
 
 /**
  * The class {@link AbstractSubject} is an implementation of the {@link Subject} interface This
  * class encapsulates the observable object and notifies all registered observers when the
  * observable changes
  *
+ * <p>
+ * The observers are held in an {@link ObserverRegistry} and are always notified from an immutable
+ * snapshot, so an observer can remove itself while it is notified The {@link DispatchMode} decides
+ * if the notification holds the monitor of this subject or runs without any lock, the
+ * {@link RegistrationMode} decides if observers are identified by equality or by identity
+ * </p>
+ *
+ * <p>
+ * If {@link DispatchMetrics} are set, every notification is recorded with its latency and the
+ * invocation time of every observer If a {@link ParallelFanOut} is set, observer lists that reach
+ * its threshold are notified in parallel If a {@link DispatchGuard} is set, the observers are
+ * notified sequentially through the guard, so a failing or slow observer neither aborts nor stalls
+ * the notification of the others
+ * </p>
+ *
+ * <p>
+ * Inside a batch scope of {@link Subjects#batch(Runnable)} the notifications are deferred, and the
+ * observers are notified once with the final observable when the outermost scope ends
+ * </p>
+ *
  * @param <T>
  *            the generic type of the observable object
  * @param <O>
@@ -45,26 +80,58 @@ import lombok.Getter;
 public abstract class AbstractSubject<T, O extends Observer<T>> implements Subject<T, O>
 {
 
-	/** The list of registered observers */
+	/** The registry of the registered observers */
+	private final ObserverRegistry<O> observerRegistry;
+
+	/** The mode that decides if observers are notified while the monitor is held */
 	@Getter
-	private final List<O> observers;
+	private final DispatchMode dispatchMode;
 
 	/** The current observable object */
 	@Getter
-	private T observable;
+	private volatile T observable;
+
+	/** The executor that notifies the observers on {@link #publishAsync(Object)} */
+	@Getter
+	@Setter
+	@NonNull
+	private volatile Executor executor = ForkJoinPool.commonPool();
+
+	/** The metrics that record the notifications, null if the notifications are not recorded */
+	@Getter
+	@Setter
+	private volatile DispatchMetrics metrics;
 
 	/**
-	 * Initialization block to create the list of observers
-	 **/
-	{
-		observers = new ArrayList<>();
-	}
+	 * The parallel fan out for large observer lists, null if the observers are always notified
+	 * sequentially
+	 */
+	@Getter
+	@Setter
+	private volatile ParallelFanOut parallelFanOut;
+
+	/**
+	 * The guard that isolates failing and slow observers, null if a failing observer aborts the
+	 * notification
+	 */
+	@Getter
+	@Setter
+	private volatile DispatchGuard dispatchGuard;
+
+	/**
+	 * The watchdog that enforces a timeout on every update of {@link #publishAsync(Object)}, null
+	 * if the updates are not timed out
+	 */
+	@Getter
+	@Setter
+	private volatile Watchdog watchdog;
 
 	/**
 	 * Default constructor for a new subject with no initial observable
 	 */
 	public AbstractSubject()
 	{
+		this(DispatchMode.SYNCHRONIZED);
 	}
 
 	/**
@@ -74,70 +141,379 @@ public abstract class AbstractSubject<T, O extends Observer<T>> implements Subje
 	 *            the initial observable object
 	 */
 	public AbstractSubject(final T observable)
+	{
+		this(observable, DispatchMode.SYNCHRONIZED);
+	}
+
+	/**
+	 * Constructor for a new subject with no initial observable and the given dispatch mode
+	 *
+	 * @param dispatchMode
+	 *            the mode that decides if observers are notified while the monitor is held
+	 */
+	public AbstractSubject(final @NonNull DispatchMode dispatchMode)
+	{
+		this(null, dispatchMode);
+	}
+
+	/**
+	 * Constructor for a new subject with an initial observable and the given dispatch mode
+	 *
+	 * @param observable
+	 *            the initial observable object
+	 * @param dispatchMode
+	 *            the mode that decides if observers are notified while the monitor is held
+	 */
+	public AbstractSubject(final T observable, final @NonNull DispatchMode dispatchMode)
+	{
+		this(observable, dispatchMode, RegistrationMode.EQUALITY);
+	}
+
+	/**
+	 * Constructor for a new subject with an initial observable, the given dispatch mode and the
+	 * given registration mode
+	 *
+	 * @param observable
+	 *            the initial observable object
+	 * @param dispatchMode
+	 *            the mode that decides if observers are notified while the monitor is held
+	 * @param registrationMode
+	 *            the mode that decides if observers are identified by equality or by identity
+	 */
+	public AbstractSubject(final T observable, final @NonNull DispatchMode dispatchMode,
+		final @NonNull RegistrationMode registrationMode)
+	{
+		this(observable, dispatchMode, new ObserverRegistry<>(registrationMode));
+	}
+
+	/**
+	 * Constructor for a new subject with an initial observable, the given dispatch mode and the
+	 * given registry that holds the observers, for instance a
+	 * {@link io.github.astrapi69.design.pattern.observer.registry.ShardedObserverRegistry} for
+	 * subjects with a high churn of observers
+	 *
+	 * @param observable
+	 *            the initial observable object
+	 * @param dispatchMode
+	 *            the mode that decides if observers are notified while the monitor is held
+	 * @param observerRegistry
+	 *            the registry that holds the observers
+	 */
+	public AbstractSubject(final T observable, final @NonNull DispatchMode dispatchMode,
+		final @NonNull ObserverRegistry<O> observerRegistry)
 	{
 		this.observable = observable;
+		this.dispatchMode = dispatchMode;
+		this.observerRegistry = observerRegistry;
+	}
+
+	/**
+	 * Gets an immutable snapshot of the registered observers Observers have to be added or removed
+	 * with the corresponding methods of this subject
+	 *
+	 * @return the immutable snapshot of the registered observers
+	 */
+	@Override
+	public List<O> getObservers()
+	{
+		return observerRegistry.getObservers();
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void add(final O observer)
+	public void add(final O observer)
 	{
-		getObservers().add(observer);
+		observerRegistry.add(observer);
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void addAll(final Collection<O> observers)
+	public void addAll(final Collection<O> observers)
 	{
-		getObservers().addAll(observers);
+		observerRegistry.addAll(observers);
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void remove(final O observer)
+	public void remove(final O observer)
 	{
-		final int index = getObservers().indexOf(observer);
-		if (0 <= index)
-		{
-			getObservers().remove(observer);
-		}
+		observerRegistry.remove(observer);
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void removeAll(final Collection<O> observers)
+	public void removeAll(final Collection<O> observers)
 	{
-		getObservers().removeAll(observers);
+		observerRegistry.removeAll(observers);
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void setObservable(final T observable)
+	public void setObservable(final T observable)
 	{
-		this.observable = observable;
-		updateObservers();
+		if (dispatchMode == DispatchMode.COPY_ON_WRITE)
+		{
+			this.observable = observable;
+			if (!Subjects.defer(this))
+			{
+				notifyObservers(observable);
+			}
+			return;
+		}
+		synchronized (this)
+		{
+			this.observable = observable;
+			if (!Subjects.defer(this))
+			{
+				notifyObservers(observable);
+			}
+		}
+	}
+
+	/**
+	 * Sets the given observables and notifies each observer once with the whole batch over
+	 * {@link Observer#updateBatch(List)} The last observable becomes the current observable object
+	 *
+	 * @param observables
+	 *            the new observable objects in order
+	 */
+	@Override
+	public void setObservables(final @NonNull Collection<T> observables)
+	{
+		if (observables.isEmpty())
+		{
+			return;
+		}
+		final List<T> batch = Collections.unmodifiableList(new ArrayList<>(observables));
+		final T last = batch.get(batch.size() - 1);
+		if (dispatchMode == DispatchMode.COPY_ON_WRITE)
+		{
+			this.observable = last;
+			if (!Subjects.defer(this))
+			{
+				notifyObserversBatch(batch);
+			}
+			return;
+		}
+		synchronized (this)
+		{
+			this.observable = last;
+			if (!Subjects.defer(this))
+			{
+				notifyObserversBatch(batch);
+			}
+		}
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void updateObservers()
+	public void updateObservers()
+	{
+		if (Subjects.defer(this))
+		{
+			return;
+		}
+		if (dispatchMode == DispatchMode.COPY_ON_WRITE)
+		{
+			notifyObservers(getObservable());
+			return;
+		}
+		synchronized (this)
+		{
+			notifyObservers(getObservable());
+		}
+	}
+
+	/**
+	 * Sets the given observable and notifies all observers asynchronously on the configured
+	 * {@link #getExecutor() executor} The calling thread returns right after the notifications are
+	 * handed off
+	 *
+	 * <p>
+	 * The returned future completes when every observer has been updated A failing observer does not
+	 * prevent the update of the others, all failures are collected in a
+	 * {@link io.github.astrapi69.design.pattern.observer.dispatch.DispatchException} that completes
+	 * the future exceptionally If a {@link Watchdog} is set, an update that exceeds its timeout is
+	 * reported and counts as failure
+	 * </p>
+	 *
+	 * @param observable
+	 *            the new observable object
+	 * @return the future that completes when all observers have been updated
+	 */
+	public CompletableFuture<Void> publishAsync(final T observable)
+	{
+		final List<O> observers;
+		if (dispatchMode == DispatchMode.COPY_ON_WRITE)
+		{
+			this.observable = observable;
+			observers = getObservers();
+		}
+		else
+		{
+			synchronized (this)
+			{
+				this.observable = observable;
+				observers = getObservers();
+			}
+		}
+		return dispatchAsync(observers, observable);
+	}
+
+	/**
+	 * Notifies the given observers asynchronously with the given observable on the configured
+	 * {@link #getExecutor() executor} under the watch of the {@link Watchdog} if one is set, and
+	 * records the notification if {@link DispatchMetrics} are set
+	 *
+	 * @param observers
+	 *            the immutable snapshot of the observers to notify
+	 * @param observable
+	 *            the observable object to pass to the observers
+	 * @return the future that completes when all observers have been updated
+	 */
+	protected CompletableFuture<Void> dispatchAsync(final List<O> observers, final T observable)
 	{
-		for (final O observer : getObservers())
+		final DispatchMetrics metrics = this.metrics;
+		if (metrics != null)
 		{
-			observer.update(getObservable());
+			return metrics.dispatchAsync(observers, observer -> observer.update(observable),
+				executor, watchdog);
 		}
+		return AsyncDispatcher.dispatch(observers, observer -> observer.update(observable),
+			executor, watchdog);
+	}
+
+	/**
+	 * Notifies all observers of the current snapshot with the given observable
+	 *
+	 * @param observable
+	 *            the observable object to pass to the observers
+	 */
+	protected void notifyObservers(final T observable)
+	{
+		dispatch(getObservers(), Observer::update, observable);
+	}
+
+	/**
+	 * Notifies all observers of the current snapshot with the given batch of observables
+	 *
+	 * @param observables
+	 *            the unmodifiable list of observables to pass to the observers
+	 */
+	protected void notifyObserversBatch(final List<T> observables)
+	{
+		dispatch(getObservers(), Observer::updateBatch, observables);
+	}
+
+	/**
+	 * Invokes the given action for every given observer with the given value The observers are
+	 * notified through the {@link DispatchGuard} if one is set, otherwise in parallel if a
+	 * {@link ParallelFanOut} is set and its threshold is reached, and the notification is recorded
+	 * if {@link DispatchMetrics} are set
+	 *
+	 * @param <V>
+	 *            the generic type of the value
+	 * @param observers
+	 *            the immutable snapshot of the observers to notify
+	 * @param action
+	 *            the action that notifies an observer with the value
+	 * @param value
+	 *            the value to pass to the observers
+	 */
+	protected <V> void dispatch(final List<O> observers,
+		final BiConsumer<? super O, ? super V> action, final V value)
+	{
+		final DispatchGuard dispatchGuard = this.dispatchGuard;
+		final ParallelFanOut parallelFanOut = this.parallelFanOut;
+		final DispatchMetrics metrics = this.metrics;
+		if (dispatchGuard != null)
+		{
+			if (metrics == null)
+			{
+				dispatchGuard.dispatch(observers, action, value);
+				return;
+			}
+			final long start = System.nanoTime();
+			try
+			{
+				dispatchGuard.dispatch(observers, action, value, metrics::recordInvocation);
+			}
+			finally
+			{
+				metrics.recordPublish(observers.size(), System.nanoTime() - start);
+			}
+			return;
+		}
+		if (parallelFanOut != null && parallelFanOut.appliesTo(observers.size()))
+		{
+			if (metrics == null)
+			{
+				parallelFanOut.dispatch(observers, action, value);
+				return;
+			}
+			final long start = System.nanoTime();
+			try
+			{
+				parallelFanOut.dispatch(observers, instrument(action, metrics), value);
+			}
+			finally
+			{
+				metrics.recordPublish(observers.size(), System.nanoTime() - start);
+			}
+			return;
+		}
+		if (metrics != null)
+		{
+			metrics.dispatch(observers, action, value);
+			return;
+		}
+		final int size = observers.size();
+		for (int i = 0; i < size; i++)
+		{
+			action.accept(observers.get(i), value);
+		}
+	}
+
+	/**
+	 * Wraps the given action so that the invocation time of every call is recorded in the given
+	 * metrics, the wrapped action may be called from several threads at once
+	 *
+	 * @param <L>
+	 *            the generic type of the observer
+	 * @param <V>
+	 *            the generic type of the value
+	 * @param action
+	 *            the action that notifies an observer with the value
+	 * @param metrics
+	 *            the metrics that record the invocation times
+	 * @return the instrumented action
+	 */
+	private static <L, V> BiConsumer<L, V> instrument(final BiConsumer<? super L, ? super V> action,
+		final DispatchMetrics metrics)
+	{
+		return (observer, value) -> {
+			final long start = System.nanoTime();
+			try
+			{
+				action.accept(observer, value);
+			}
+			finally
+			{
+				metrics.recordInvocation(System.nanoTime() - start);
+			}
+		};
 	}
 
 }
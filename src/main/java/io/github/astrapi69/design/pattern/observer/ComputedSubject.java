@@ -0,0 +1,608 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import io.github.astrapi69.design.pattern.observer.api.Subject;
+import io.github.astrapi69.design.pattern.observer.registry.DispatchMode;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link ComputedSubject} is a subject whose observable is derived from the observables
+ * of other subjects with a computation The sources can be any subjects that accept plain
+ * {@link Observer}s, including other computed subjects, so chains and diamonds of derived values
+ * can be declared without observers that call {@link Subject#setObservable(Object)} on each other
+ *
+ * <p>
+ * A change of a source starts a propagation pass that first marks every computed subject that
+ * depends on the source dirty and then recomputes the dirty ones in topological order, so a
+ * computed subject never sees a mix of new and old source values and is computed at most once per
+ * change Computed subjects without observers stay dirty and are recomputed lazily when
+ * {@link #getObservable()} is called The observers are only notified if the computed value is not
+ * equal to the previous one
+ * </p>
+ *
+ * <p>
+ * Computed subjects that are connected over common sources form one dependency graph with its own
+ * lock, so independent graphs propagate in parallel The computations run while the lock of their
+ * graph is held and must not wait for other threads that propagate changes of the same graph, the
+ * observers are notified in topological order after the lock was released
+ * </p>
+ *
+ * @param <T>
+ *            the generic type of the computed observable
+ */
+public class ComputedSubject<T> extends AbstractSubject<T, Observer<T>> implements AutoCloseable
+{
+
+	/**
+	 * The lock that guards the registration of the source nodes and the merging of the dependency
+	 * graphs, it is only held while computed subjects are created or closed
+	 */
+	private static final Object ATTACH_LOCK = new Object();
+
+	/** The computation that derives the observable from the sources */
+	private final Supplier<? extends T> computation;
+
+	/** The sources of this computed subject */
+	private final List<Subject<?, ?>> sources;
+
+	/**
+	 * The nodes of the sources in the same order, null for computed sources They are held here
+	 * because a source may reference its observers only weakly
+	 */
+	private final List<SourceNode> sourceNodes;
+
+	/** The computed subjects that depend on this one, guarded by the lock of the graph */
+	private final List<ComputedSubject<?>> dependents = new ArrayList<>();
+
+	/** The topological rank, one more than the highest rank of the computed sources */
+	@Getter
+	private final int rank;
+
+	/** The dependency graph of this computed subject */
+	private final Graph graph;
+
+	/** The computed observable */
+	private volatile T computed;
+
+	/** Flag that indicates if a source changed since the last computation */
+	private volatile boolean dirty;
+
+	/** Flag that indicates if this computed subject is queued for the pass, guarded by the lock */
+	private boolean queued;
+
+	/** Flag that indicates if this computed subject was detached from its sources */
+	private boolean closed;
+
+	/**
+	 * Instantiates a new {@link ComputedSubject} and computes its initial observable
+	 *
+	 * @param computation
+	 *            the computation that derives the observable from the observables of the sources
+	 * @param sources
+	 *            the subjects whose observables the computation reads, they must accept plain
+	 *            {@link Observer}s
+	 * @throws IllegalArgumentException
+	 *             if a source accepts only a special type of observers
+	 */
+	public ComputedSubject(final @NonNull Supplier<? extends T> computation,
+		final @NonNull Subject<?, ?>... sources)
+	{
+		super(null, DispatchMode.COPY_ON_WRITE);
+		this.computation = computation;
+		this.sources = List.of(sources);
+		synchronized (ATTACH_LOCK)
+		{
+			final List<SourceNode> nodes = attach(this.sources);
+			final List<Graph> graphs = new ArrayList<>(nodes.size());
+			int highestRank = 0;
+			for (int i = 0; i < nodes.size(); i++)
+			{
+				final SourceNode node = nodes.get(i);
+				if (node == null)
+				{
+					final ComputedSubject<?> source = (ComputedSubject<?>)this.sources.get(i);
+					graphs.add(source.graph);
+					highestRank = Math.max(highestRank, source.rank);
+				}
+				else
+				{
+					graphs.add(node.graph);
+				}
+			}
+			this.sourceNodes = Collections.unmodifiableList(nodes);
+			this.rank = highestRank + 1;
+			this.graph = Graph.merge(graphs);
+			try
+			{
+				this.computed = computation.get();
+				for (int i = 0; i < nodes.size(); i++)
+				{
+					final SourceNode node = nodes.get(i);
+					if (node == null)
+					{
+						((ComputedSubject<?>)this.sources.get(i)).dependents.add(this);
+					}
+					else
+					{
+						node.dependents.add(this);
+					}
+				}
+			}
+			finally
+			{
+				graph.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Gets the computed observable, it is recomputed first if a source changed since the last
+	 * computation
+	 *
+	 * @return the computed observable
+	 */
+	@Override
+	public T getObservable()
+	{
+		if (dirty)
+		{
+			boolean changed = false;
+			final Graph locked = graph.lock();
+			try
+			{
+				if (dirty)
+				{
+					changed = refresh();
+				}
+			}
+			finally
+			{
+				locked.lock.unlock();
+			}
+			if (changed)
+			{
+				updateObservers();
+			}
+		}
+		return computed;
+	}
+
+	/**
+	 * Throws an {@link UnsupportedOperationException}, because the observable of a computed
+	 * subject is derived from its sources
+	 *
+	 * @param observable
+	 *            the ignored observable
+	 */
+	@Override
+	public void setObservable(final T observable)
+	{
+		throw new UnsupportedOperationException(
+			"The observable of a computed subject is derived from its sources");
+	}
+
+	/**
+	 * Throws an {@link UnsupportedOperationException}, because the observable of a computed
+	 * subject is derived from its sources
+	 *
+	 * @param observables
+	 *            the ignored observables
+	 */
+	@Override
+	public void setObservables(final @NonNull Collection<T> observables)
+	{
+		throw new UnsupportedOperationException(
+			"The observable of a computed subject is derived from its sources");
+	}
+
+	/**
+	 * Throws an {@link UnsupportedOperationException}, because the observable of a computed
+	 * subject is derived from its sources
+	 *
+	 * @param observable
+	 *            the ignored observable
+	 * @return never
+	 */
+	@Override
+	public CompletableFuture<Void> publishAsync(final T observable)
+	{
+		throw new UnsupportedOperationException(
+			"The observable of a computed subject is derived from its sources");
+	}
+
+	/**
+	 * Detaches this computed subject from its sources, it keeps its last observable and is no
+	 * longer recomputed
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void close()
+	{
+		synchronized (ATTACH_LOCK)
+		{
+			final Graph locked = graph.lock();
+			try
+			{
+				if (closed)
+				{
+					return;
+				}
+				closed = true;
+				dirty = false;
+				for (int i = 0; i < sources.size(); i++)
+				{
+					final SourceNode node = sourceNodes.get(i);
+					if (node == null)
+					{
+						((ComputedSubject<?>)sources.get(i)).dependents.remove(this);
+					}
+					else
+					{
+						node.dependents.remove(this);
+						if (node.dependents.isEmpty())
+						{
+							((Subject<Object, Observer<Object>>)sources.get(i)).remove(node);
+						}
+					}
+				}
+			}
+			finally
+			{
+				locked.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Recomputes the observable, the caller must hold the lock of the graph
+	 *
+	 * @return true if the computed observable changed and the observers have to be notified
+	 */
+	private boolean refresh()
+	{
+		dirty = false;
+		final T next = computation.get();
+		if (Objects.equals(computed, next))
+		{
+			return false;
+		}
+		computed = next;
+		return true;
+	}
+
+	/**
+	 * Gets the nodes of the given sources and registers a new node with every source that has none
+	 * yet, the caller must hold the attach lock If a source does not accept plain observers, the
+	 * nodes that were registered so far are unregistered again
+	 *
+	 * @param sources
+	 *            the sources
+	 * @return the nodes of the sources in the same order, null for computed sources
+	 * @throws IllegalArgumentException
+	 *             if a source accepts only a special type of observers
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<SourceNode> attach(final List<Subject<?, ?>> sources)
+	{
+		final List<SourceNode> nodes = new ArrayList<>(sources.size());
+		final List<Integer> registered = new ArrayList<>();
+		for (final Subject<?, ?> source : sources)
+		{
+			if (source instanceof ComputedSubject)
+			{
+				nodes.add(null);
+				continue;
+			}
+			SourceNode node = SourceNode.find(source);
+			if (node == null)
+			{
+				node = new SourceNode(new Graph());
+				try
+				{
+					((Subject<Object, Observer<Object>>)source).add(node);
+				}
+				catch (final ClassCastException exception)
+				{
+					for (final int index : registered)
+					{
+						((Subject<Object, Observer<Object>>)sources.get(index))
+							.remove(nodes.get(index));
+					}
+					throw new IllegalArgumentException("The source " + source.getClass().getName()
+						+ " accepts only a special type of observers and cannot be the source of a"
+						+ " computed subject", exception);
+				}
+				registered.add(nodes.size());
+			}
+			nodes.add(node);
+		}
+		return nodes;
+	}
+
+	/**
+	 * Propagates a change of a source to the computed subjects that depend on it and all their
+	 * dependents, and notifies the observers of the changed ones after the lock of the graph was
+	 * released
+	 *
+	 * @param node
+	 *            the node of the changed source
+	 */
+	private static void propagate(final SourceNode node)
+	{
+		List<ComputedSubject<?>> changed = null;
+		final Graph graph = node.graph.lock();
+		try
+		{
+			final int size = node.dependents.size();
+			for (int i = 0; i < size; i++)
+			{
+				markDirty(graph, node.dependents.get(i));
+			}
+			if (graph.propagating)
+			{
+				return;
+			}
+			graph.propagating = true;
+			try
+			{
+				ComputedSubject<?> computed;
+				while ((computed = graph.pending.poll()) != null)
+				{
+					computed.queued = false;
+					if (computed.dirty && !computed.getObservers().isEmpty() && computed.refresh())
+					{
+						if (changed == null)
+						{
+							changed = new ArrayList<>();
+						}
+						changed.add(computed);
+					}
+				}
+			}
+			finally
+			{
+				ComputedSubject<?> computed;
+				while ((computed = graph.pending.poll()) != null)
+				{
+					computed.queued = false;
+				}
+				graph.propagating = false;
+			}
+		}
+		finally
+		{
+			graph.lock.unlock();
+		}
+		if (changed != null)
+		{
+			for (final ComputedSubject<?> computed : changed)
+			{
+				computed.updateObservers();
+			}
+		}
+	}
+
+	/**
+	 * Marks the given computed subject and all its dependents dirty and queues them for the pass,
+	 * the caller must hold the lock of the given graph
+	 *
+	 * @param graph
+	 *            the locked graph
+	 * @param computed
+	 *            the computed subject
+	 */
+	private static void markDirty(final Graph graph, final ComputedSubject<?> computed)
+	{
+		if (computed.queued || computed.closed)
+		{
+			return;
+		}
+		computed.dirty = true;
+		computed.queued = true;
+		graph.pending.add(computed);
+		final int size = computed.dependents.size();
+		for (int i = 0; i < size; i++)
+		{
+			markDirty(graph, computed.dependents.get(i));
+		}
+	}
+
+	/**
+	 * The dependency graph of computed subjects that are connected over common sources Graphs are
+	 * merged when a computed subject connects them, a merged graph forwards to the graph it was
+	 * merged into
+	 */
+	private static final class Graph
+	{
+
+		/** The lock that guards the propagation and the computations of this graph */
+		final ReentrantLock lock = new ReentrantLock();
+
+		/** The dirty computed subjects of the running pass in topological order */
+		final Queue<ComputedSubject<?>> pending = new PriorityQueue<>(
+			Comparator.comparingInt(ComputedSubject::getRank));
+
+		/** Flag that indicates if a propagation pass is running, guarded by the lock */
+		boolean propagating;
+
+		/** The graph that this graph was merged into, null as long as it was not merged */
+		volatile Graph mergedInto;
+
+		/**
+		 * Merges the given graphs into one and locks it, the caller must hold the attach lock and
+		 * has to release the lock of the returned graph
+		 *
+		 * @param graphs
+		 *            the graphs to merge
+		 * @return the locked merged graph, a new one if no graph was given
+		 */
+		static Graph merge(final List<Graph> graphs)
+		{
+			final List<Graph> roots = new ArrayList<>(graphs.size());
+			for (final Graph graph : graphs)
+			{
+				final Graph root = graph.root();
+				if (!roots.contains(root))
+				{
+					roots.add(root);
+				}
+			}
+			if (roots.isEmpty())
+			{
+				roots.add(new Graph());
+			}
+			for (final Graph root : roots)
+			{
+				root.lock.lock();
+			}
+			final Graph target = roots.get(0);
+			for (int i = 1; i < roots.size(); i++)
+			{
+				final Graph merged = roots.get(i);
+				merged.mergedInto = target;
+				merged.lock.unlock();
+			}
+			return target;
+		}
+
+		/**
+		 * Gets the graph that this graph was merged into last
+		 *
+		 * @return the root graph
+		 */
+		Graph root()
+		{
+			Graph graph = this;
+			Graph next;
+			while ((next = graph.mergedInto) != null)
+			{
+				graph = next;
+			}
+			return graph;
+		}
+
+		/**
+		 * Locks the graph that this graph was merged into last, the caller has to release the lock
+		 * of the returned graph
+		 *
+		 * @return the locked root graph
+		 */
+		Graph lock()
+		{
+			while (true)
+			{
+				final Graph root = root();
+				root.lock.lock();
+				if (root.mergedInto == null)
+				{
+					return root;
+				}
+				root.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * The observer that is registered once with every source that is not a computed subject and
+	 * starts the propagation to the computed subjects that depend on it
+	 */
+	private static final class SourceNode implements Observer<Object>
+	{
+
+		/** The graph of the computed subjects that depend on the source */
+		final Graph graph;
+
+		/** The computed subjects that depend directly on the source, guarded by the graph lock */
+		final List<ComputedSubject<?>> dependents = new ArrayList<>();
+
+		/**
+		 * Instantiates a new {@link SourceNode}
+		 *
+		 * @param graph
+		 *            the graph of the computed subjects that depend on the source
+		 */
+		SourceNode(final Graph graph)
+		{
+			this.graph = graph;
+		}
+
+		/**
+		 * Finds the node that is registered with the given source
+		 *
+		 * @param source
+		 *            the source
+		 * @return the node of the source, or null if the source has none yet
+		 */
+		static SourceNode find(final Subject<?, ?> source)
+		{
+			for (final Object observer : source.getObservers())
+			{
+				if (observer instanceof SourceNode)
+				{
+					return (SourceNode)observer;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void update(final Object observable)
+		{
+			propagate(this);
+		}
+
+		/**
+		 * Propagates the whole batch once, because the computations only read the last observable
+		 * of the source
+		 *
+		 * @param observables
+		 *            the ignored observables of the batch
+		 */
+		@Override
+		public void updateBatch(final List<Object> observables)
+		{
+			propagate(this);
+		}
+	}
+
+}
@@ -0,0 +1,289 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import io.github.astrapi69.design.pattern.observer.metrics.DispatchMetrics;
+import io.github.astrapi69.design.pattern.observer.registry.DispatchMode;
+
+/**
+ * The class {@link ConflatingSubject} is a subject that delivers only the latest observable to
+ * observers that are still busy with a previous update
+ *
+ * <p>
+ * Every observer has a single slot that only remembers that the observer has not yet received the
+ * latest observable The slot reads the current observable of this subject when it delivers, so
+ * intermediate observables are dropped for a slow observer instead of piling up, and the last
+ * update of every observer is always the current observable, even if several producers set
+ * observables concurrently The observers are updated on the {@link #getExecutor() executor} of this
+ * subject, one update at a time per observer, so the producer never waits for an observer
+ * </p>
+ *
+ * <p>
+ * The conflation applies to {@link #setObservable(Object)},
+ * {@link #setObservables(java.util.Collection)} and {@link #updateObservers()}, while
+ * {@link #publishAsync(Object)} still delivers every observable
+ * </p>
+ *
+ * @param <T>
+ *            the generic type of the observable object
+ * @param <O>
+ *            the generic type of the observer
+ */
+public class ConflatingSubject<T, O extends Observer<T>> extends AbstractSubject<T, O>
+{
+
+	/** The lock that guards the rebuild of the slots */
+	private final Object slotsLock = new Object();
+
+	/** The slots of the observers of the current snapshot */
+	private volatile Slots slots = new Slots(List.of(), List.of());
+
+	/**
+	 * Instantiates a new {@link ConflatingSubject} with no initial observable
+	 */
+	public ConflatingSubject()
+	{
+		this(null);
+	}
+
+	/**
+	 * Instantiates a new {@link ConflatingSubject} with the given initial observable
+	 *
+	 * @param observable
+	 *            the initial observable object
+	 */
+	public ConflatingSubject(final T observable)
+	{
+		super(observable, DispatchMode.COPY_ON_WRITE);
+	}
+
+	/**
+	 * Marks the slot of each observer as pending and schedules the update of every observer that is
+	 * not already busy The observers receive the current observable at the time of their update,
+	 * which is the given observable unless a newer one was set in the meantime
+	 *
+	 * @param observable
+	 *            the observable object to pass to the observers
+	 */
+	@Override
+	protected void notifyObservers(final T observable)
+	{
+		final DispatchMetrics metrics = getMetrics();
+		final long start = metrics != null ? System.nanoTime() : 0L;
+		final List<Slot> current = slotsOf(getObservers());
+		final int size = current.size();
+		for (int i = 0; i < size; i++)
+		{
+			current.get(i).offer();
+		}
+		if (metrics != null)
+		{
+			metrics.recordPublish(current.size(), System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Offers only the last observable of the given batch, because the observers receive only the
+	 * current observable anyway
+	 *
+	 * @param observables
+	 *            the unmodifiable list of observables to pass to the observers
+	 */
+	@Override
+	protected void notifyObserversBatch(final List<T> observables)
+	{
+		notifyObservers(observables.get(observables.size() - 1));
+	}
+
+	/**
+	 * Gets the slots for the given snapshot of observers The slots are rebuilt only if the snapshot
+	 * has changed, and the slots of observers that are still registered are kept with their pending
+	 * observables
+	 *
+	 * @param observers
+	 *            the current snapshot of the observers
+	 * @return the slots of the given observers in the same order
+	 */
+	private List<Slot> slotsOf(final List<O> observers)
+	{
+		Slots current = slots;
+		if (current.observers == observers)
+		{
+			return current.slots;
+		}
+		synchronized (slotsLock)
+		{
+			current = slots;
+			if (current.observers == observers)
+			{
+				return current.slots;
+			}
+			final Map<O, Slot> existing = new IdentityHashMap<>();
+			for (final Slot slot : current.slots)
+			{
+				existing.put(slot.observer, slot);
+			}
+			final List<Slot> rebuilt = new ArrayList<>(observers.size());
+			for (final O observer : observers)
+			{
+				final Slot slot = existing.get(observer);
+				rebuilt.add(slot != null ? slot : new Slot(observer));
+			}
+			current = new Slots(observers, List.copyOf(rebuilt));
+			slots = current;
+			return current.slots;
+		}
+	}
+
+	/**
+	 * Holds the slots that belong to one snapshot of the observers
+	 */
+	private final class Slots
+	{
+
+		/** The snapshot of the observers */
+		final List<O> observers;
+
+		/** The slots of the observers in the same order */
+		final List<Slot> slots;
+
+		/**
+		 * Instantiates a new {@link Slots} object
+		 *
+		 * @param observers
+		 *            the snapshot of the observers
+		 * @param slots
+		 *            the slots of the observers
+		 */
+		Slots(final List<O> observers, final List<Slot> slots)
+		{
+			this.observers = observers;
+			this.slots = slots;
+		}
+	}
+
+	/**
+	 * The slot of one observer that remembers if the observer has not yet received the current
+	 * observable
+	 */
+	private final class Slot implements Runnable
+	{
+
+		/** The observer of this slot */
+		final O observer;
+
+		/** Flag that indicates if the current observable is not yet delivered */
+		final AtomicBoolean pending = new AtomicBoolean();
+
+		/** Flag that indicates if an update of the observer is scheduled or running */
+		final AtomicBoolean scheduled = new AtomicBoolean();
+
+		/**
+		 * Instantiates a new {@link Slot} for the given observer
+		 *
+		 * @param observer
+		 *            the observer
+		 */
+		Slot(final O observer)
+		{
+			this.observer = observer;
+		}
+
+		/**
+		 * Marks the current observable as not yet delivered and schedules an update if none is
+		 * scheduled
+		 */
+		void offer()
+		{
+			pending.set(true);
+			schedule();
+		}
+
+		/**
+		 * Schedules an update of the observer on the executor if none is scheduled
+		 */
+		void schedule()
+		{
+			if (scheduled.compareAndSet(false, true))
+			{
+				try
+				{
+					getExecutor().execute(this);
+				}
+				catch (final RejectedExecutionException exception)
+				{
+					scheduled.set(false);
+					throw exception;
+				}
+			}
+		}
+
+		/**
+		 * Delivers the current observable to the observer and schedules the next update if a newer
+		 * observable arrived in the meantime The pending flag is cleared before the current
+		 * observable is read, so an observable that is set concurrently is either delivered now or
+		 * marks the slot as pending again
+		 */
+		@Override
+		public void run()
+		{
+			try
+			{
+				if (pending.getAndSet(false))
+				{
+					final T observable = getObservable();
+					final DispatchMetrics metrics = getMetrics();
+					if (metrics == null)
+					{
+						observer.update(observable);
+					}
+					else
+					{
+						final long start = System.nanoTime();
+						observer.update(observable);
+						metrics.recordInvocation(System.nanoTime() - start);
+					}
+				}
+			}
+			finally
+			{
+				scheduled.set(false);
+				if (pending.get())
+				{
+					schedule();
+				}
+			}
+		}
+	}
+
+}
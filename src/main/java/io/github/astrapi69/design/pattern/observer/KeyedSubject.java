@@ -0,0 +1,233 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import io.github.astrapi69.design.pattern.observer.registry.CombinedSnapshot;
+import io.github.astrapi69.design.pattern.observer.registry.DispatchMode;
+import io.github.astrapi69.design.pattern.observer.registry.SubscriptionIndex;
+import lombok.NonNull;
+
+/**
+ * The class {@link KeyedSubject} is a subject that routes every observable only to the observers
+ * that subscribed for it Observers subscribe for a key, and the key of every observable is computed
+ * with a key extractor and looked up in a {@link SubscriptionIndex}, so a notification costs only
+ * as much as the number of matching observers
+ *
+ * <p>
+ * Observers that are added with {@link #add(Observer)} still receive every observable, and
+ * observers that subscribe with a predicate are tested on every notification
+ * </p>
+ *
+ * @param <K>
+ *            the generic type of the key
+ * @param <T>
+ *            the generic type of the observable object
+ * @param <O>
+ *            the generic type of the observer
+ */
+public class KeyedSubject<K, T, O extends Observer<T>> extends AbstractSubject<T, O>
+{
+
+	/** The index of the observers that subscribed for a key or a predicate */
+	private final SubscriptionIndex<K, T, O> subscriptions;
+
+	/** The concatenation of the added and the subscribed observers of the last notification */
+	private final CombinedSnapshot<O> notified = new CombinedSnapshot<>();
+
+	/**
+	 * Instantiates a new {@link KeyedSubject} with no initial observable
+	 *
+	 * @param keyExtractor
+	 *            the function that computes the key of an observable
+	 */
+	public KeyedSubject(final @NonNull Function<? super T, ? extends K> keyExtractor)
+	{
+		this(null, keyExtractor);
+	}
+
+	/**
+	 * Instantiates a new {@link KeyedSubject} with the given initial observable
+	 *
+	 * @param observable
+	 *            the initial observable object
+	 * @param keyExtractor
+	 *            the function that computes the key of an observable
+	 */
+	public KeyedSubject(final T observable,
+		final @NonNull Function<? super T, ? extends K> keyExtractor)
+	{
+		this(observable, keyExtractor, DispatchMode.SYNCHRONIZED);
+	}
+
+	/**
+	 * Instantiates a new {@link KeyedSubject} with the given initial observable and dispatch mode
+	 *
+	 * @param observable
+	 *            the initial observable object
+	 * @param keyExtractor
+	 *            the function that computes the key of an observable
+	 * @param dispatchMode
+	 *            the mode that decides if observers are notified while the monitor is held
+	 */
+	public KeyedSubject(final T observable,
+		final @NonNull Function<? super T, ? extends K> keyExtractor,
+		final @NonNull DispatchMode dispatchMode)
+	{
+		super(observable, dispatchMode);
+		this.subscriptions = new SubscriptionIndex<>(keyExtractor);
+	}
+
+	/**
+	 * Subscribes the given observer for all observables with the given key
+	 *
+	 * @param key
+	 *            the key of the observables
+	 * @param observer
+	 *            the observer
+	 * @return true if the observer was subscribed, false if it was already subscribed for the key
+	 */
+	public boolean subscribe(final @NonNull K key, final @NonNull O observer)
+	{
+		return subscriptions.subscribe(key, observer);
+	}
+
+	/**
+	 * Unsubscribes the given observer from the observables with the given key
+	 *
+	 * @param key
+	 *            the key of the observables
+	 * @param observer
+	 *            the observer
+	 * @return true if the observer was unsubscribed
+	 */
+	public boolean unsubscribe(final @NonNull K key, final O observer)
+	{
+		return subscriptions.unsubscribe(key, observer);
+	}
+
+	/**
+	 * Subscribes the given observer for all observables that match the given predicate The
+	 * predicate is tested on every notification
+	 *
+	 * @param filter
+	 *            the predicate that an observable must match
+	 * @param observer
+	 *            the observer
+	 */
+	public void subscribeMatching(final @NonNull Predicate<? super T> filter,
+		final @NonNull O observer)
+	{
+		subscriptions.subscribeMatching(filter, observer);
+	}
+
+	/**
+	 * Unsubscribes all predicate subscriptions of the given observer
+	 *
+	 * @param observer
+	 *            the observer
+	 * @return true if at least one subscription was removed
+	 */
+	public boolean unsubscribeMatching(final O observer)
+	{
+		return subscriptions.unsubscribeMatching(observer);
+	}
+
+	/**
+	 * Notifies the given observers that were added and the observers that subscribed for the given
+	 * observable asynchronously in one dispatch, so all failures are collected in one
+	 * {@link io.github.astrapi69.design.pattern.observer.dispatch.DispatchException}
+	 *
+	 * @param observers
+	 *            the immutable snapshot of the observers that were added
+	 * @param observable
+	 *            the observable object to pass to the observers
+	 * @return the future that completes when all observers have been updated
+	 */
+	@Override
+	protected CompletableFuture<Void> dispatchAsync(final List<O> observers, final T observable)
+	{
+		return super.dispatchAsync(notified.of(observers, subscriptions.getListeners(observable)),
+			observable);
+	}
+
+	/**
+	 * Notifies the observers that were added and then the observers that subscribed for the given
+	 * observable in one {@link #dispatch(List, java.util.function.BiConsumer, Object)}, so the
+	 * guard, the metrics and the parallel fan out see one notification with all observers
+	 *
+	 * @param observable
+	 *            the observable object to pass to the observers
+	 */
+	@Override
+	protected void notifyObservers(final T observable)
+	{
+		dispatch(notified.of(getObservers(), subscriptions.getListeners(observable)),
+			Observer::update, observable);
+	}
+
+	/**
+	 * Notifies the observers that were added with the whole batch and then the observers that
+	 * subscribed for each observable of the batch, the batch and every observable are one
+	 * notification each
+	 *
+	 * @param observables
+	 *            the unmodifiable list of observables to pass to the observers
+	 */
+	@Override
+	protected void notifyObserversBatch(final List<T> observables)
+	{
+		super.notifyObserversBatch(observables);
+		if (subscriptions.isEmpty())
+		{
+			return;
+		}
+		for (final T observable : observables)
+		{
+			notifySubscribers(observable);
+		}
+	}
+
+	/**
+	 * Notifies the observers that subscribed for the given observable
+	 *
+	 * @param observable
+	 *            the observable object to pass to the observers
+	 */
+	private void notifySubscribers(final T observable)
+	{
+		final List<O> matching = subscriptions.getListeners(observable);
+		if (!matching.isEmpty())
+		{
+			dispatch(matching, Observer::update, observable);
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.astrapi69.design.pattern.observer.api.Subject;
+import lombok.NonNull;
+
+/**
+ * The class {@link Subjects} provides batch scopes that combine several changes of subjects into
+ * one notification per subject
+ *
+ * <p>
+ * While a batch scope is open on a thread, the subjects that are changed on this thread only
+ * remember that they have to notify their observers When the outermost scope of the thread ends,
+ * every changed subject notifies its observers once with its final observable over
+ * {@link Subject#updateObservers()}, in the order the subjects were first changed Scopes can be
+ * nested, and every thread has its own scopes, so changes on other threads are notified as usual
+ * </p>
+ *
+ * <p>
+ * Subjects support batch scopes by calling {@link #defer(Subject)} before they notify their
+ * observers, as {@link AbstractSubject} and its subclasses do
+ * </p>
+ */
+public final class Subjects
+{
+
+	/** The scope of the current thread, null if no batch scope is open */
+	private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+	/** The number of threads with an open batch scope, to skip the lookup of the scope */
+	private static final AtomicInteger ACTIVE_SCOPES = new AtomicInteger();
+
+	/**
+	 * Private constructor to prevent instantiation of this utility class
+	 */
+	private Subjects()
+	{
+	}
+
+	/**
+	 * Runs the given operation in a batch scope, the notifications of all subjects that the
+	 * operation changes are deferred until the outermost scope of the current thread ends
+	 *
+	 * <p>
+	 * The deferred notifications are sent even if the operation fails, because the changes are
+	 * already applied Failures of the deferred notifications are added as suppressed exceptions to
+	 * the failure of the operation, otherwise the first one is thrown after all subjects were
+	 * notified
+	 * </p>
+	 *
+	 * @param operation
+	 *            the operation that changes the subjects
+	 */
+	public static void batch(final @NonNull Runnable operation)
+	{
+		Scope scope = SCOPE.get();
+		if (scope == null)
+		{
+			scope = new Scope();
+			SCOPE.set(scope);
+			ACTIVE_SCOPES.incrementAndGet();
+		}
+		scope.depth++;
+		try
+		{
+			operation.run();
+		}
+		catch (final RuntimeException | Error exception)
+		{
+			close(scope, exception);
+			throw exception;
+		}
+		close(scope, null);
+	}
+
+	/**
+	 * Checks if a batch scope is open on the current thread
+	 *
+	 * @return true if a batch scope is open on the current thread
+	 */
+	public static boolean isBatching()
+	{
+		return ACTIVE_SCOPES.get() != 0 && SCOPE.get() != null;
+	}
+
+	/**
+	 * Defers the notification of the given subject if a batch scope is open on the current thread
+	 * A subject calls this method before it notifies its observers and skips the notification if
+	 * it returns true
+	 *
+	 * @param subject
+	 *            the subject that is about to notify its observers
+	 * @return true if the notification is deferred to the end of the batch scope
+	 */
+	public static boolean defer(final @NonNull Subject<?, ?> subject)
+	{
+		if (ACTIVE_SCOPES.get() == 0)
+		{
+			return false;
+		}
+		final Scope scope = SCOPE.get();
+		if (scope == null || scope.depth == 0)
+		{
+			return false;
+		}
+		if (scope.changed.add(subject))
+		{
+			scope.order.add(subject);
+		}
+		return true;
+	}
+
+	/**
+	 * Closes one level of the given scope and notifies the deferred subjects if it was the
+	 * outermost level
+	 *
+	 * @param scope
+	 *            the scope of the current thread
+	 * @param failure
+	 *            the failure of the operation, null if it succeeded
+	 */
+	private static void close(final Scope scope, final Throwable failure)
+	{
+		scope.depth--;
+		if (scope.depth != 0)
+		{
+			return;
+		}
+		SCOPE.remove();
+		ACTIVE_SCOPES.decrementAndGet();
+		RuntimeException notificationFailure = null;
+		for (final Subject<?, ?> subject : scope.order)
+		{
+			try
+			{
+				subject.updateObservers();
+			}
+			catch (final RuntimeException exception)
+			{
+				if (failure != null)
+				{
+					failure.addSuppressed(exception);
+				}
+				else if (notificationFailure == null)
+				{
+					notificationFailure = exception;
+				}
+				else
+				{
+					notificationFailure.addSuppressed(exception);
+				}
+			}
+		}
+		if (notificationFailure != null)
+		{
+			throw notificationFailure;
+		}
+	}
+
+	/**
+	 * The batch scope of one thread
+	 */
+	private static final class Scope
+	{
+
+		/** The subjects that were changed in this scope, compared by identity */
+		final Set<Subject<?, ?>> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		/** The changed subjects in the order they were first changed */
+		final List<Subject<?, ?>> order = new ArrayList<>();
+
+		/** The number of nested levels of this scope */
+		int depth;
+	}
+
+}
@@ -24,6 +24,8 @@
  */
 package io.github.astrapi69.design.pattern.observer.api;
 
+import java.util.List;
+
 /**
  * The Interface {@link Observer} represents an observer in the Observer design pattern It defines a
  * contract for objects that should be notified of changes in an observable subject
@@ -42,4 +44,21 @@ public interface Observer<T>
 	 *            the observable object that has changed
 	 */
 	void update(final T observable);
+
+	/**
+	 * This method is called to notify the observer of several changes of the observable object at
+	 * once The default implementation calls {@link #update(Object)} for each observable in order,
+	 * observers that can process the whole batch more efficiently should override this method
+	 *
+	 * @param observables
+	 *            the unmodifiable list of changed observables in the order they occurred
+	 */
+	default void updateBatch(final List<T> observables)
+	{
+		final int size = observables.size();
+		for (int i = 0; i < size; i++)
+		{
+			update(observables.get(i));
+		}
+	}
 }
@@ -77,6 +77,23 @@ public interface Subject<T, O extends Observer<T>>
 	 */
 	void setObservable(final T observable);
 
+	/**
+	 * Sets the given observables in order, so the last one becomes the current observable object
+	 * The default implementation calls {@link #setObservable(Object)} for each observable,
+	 * implementations should notify each observer only once with the whole batch over
+	 * {@link Observer#updateBatch(List)}
+	 *
+	 * @param observables
+	 *            the new observable objects in order
+	 */
+	default void setObservables(final Collection<T> observables)
+	{
+		for (final T observable : observables)
+		{
+			setObservable(observable);
+		}
+	}
+
 	/**
 	 * Gets the list of observers that wish to be notified of changes to the observable object
 	 *
@@ -92,11 +109,7 @@ public interface Subject<T, O extends Observer<T>>
 	 */
 	default void remove(final O observer)
 	{
-		final int index = getObservers().indexOf(observer);
-		if (0 <= index)
-		{
-			getObservers().remove(observer);
-		}
+		getObservers().remove(observer);
 	}
 
 	/**
@@ -116,9 +129,12 @@ public interface Subject<T, O extends Observer<T>>
 	 */
 	default void updateObservers()
 	{
-		for (final O observer : getObservers())
+		final List<O> observers = getObservers();
+		final T observable = getObservable();
+		final int size = observers.size();
+		for (int i = 0; i < size; i++)
 		{
-			observer.update(getObservable());
+			observers.get(i).update(observable);
 		}
 	}
 }
@@ -0,0 +1,109 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.api;
+
+import java.io.Serializable;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The class {@link Versioned} is an immutable pair of a value and the version it was published
+ * with A holder publishes a new instance over a volatile reference on every change, so readers get
+ * a consistent value and version without any locking, and an observer can compare versions to tell
+ * if it has already processed a value
+ *
+ * @param <T>
+ *            the generic type of the value
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class Versioned<T> implements Serializable
+{
+
+	/** The serialVersionUID for serialization compatibility */
+	private static final long serialVersionUID = 1L;
+
+	/** The value */
+	private final T value;
+
+	/** The version of the value, it starts with zero and grows by one with every change */
+	private final long version;
+
+	/**
+	 * Instantiates a new {@link Versioned}
+	 *
+	 * @param value
+	 *            the value
+	 * @param version
+	 *            the version of the value
+	 */
+	public Versioned(final T value, final long version)
+	{
+		this.value = value;
+		this.version = version;
+	}
+
+	/**
+	 * Creates the initial version of the given value
+	 *
+	 * @param <T>
+	 *            the generic type of the value
+	 * @param value
+	 *            the value
+	 * @return the value with the version zero
+	 */
+	public static <T> Versioned<T> initial(final T value)
+	{
+		return new Versioned<>(value, 0L);
+	}
+
+	/**
+	 * Creates the next version with the given value
+	 *
+	 * @param value
+	 *            the new value
+	 * @return the new value with the next version
+	 */
+	public Versioned<T> next(final T value)
+	{
+		return new Versioned<>(value, version + 1L);
+	}
+
+	/**
+	 * Checks if this version is newer than the given version
+	 *
+	 * @param otherVersion
+	 *            the version to compare with, for instance the last processed version
+	 * @return true if this version is newer
+	 */
+	public boolean isNewerThan(final long otherVersion)
+	{
+		return version > otherVersion;
+	}
+
+}
@@ -18,6 +18,8 @@
  * being observed</li>
  * <li>{@link io.github.astrapi69.design.pattern.observer.api.ActionCommand} - Represents a command
  * that can be executed, typically used by observers to respond to subject changes</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.api.Versioned} - An immutable pair of a
+ * value and its version that is published for lock free reads</li>
  * </ul>
  *
  * <p>
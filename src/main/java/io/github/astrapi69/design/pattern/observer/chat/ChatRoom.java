@@ -27,16 +27,36 @@ package io.github.astrapi69.design.pattern.observer.chat;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import io.github.astrapi69.design.pattern.observer.AbstractSubject;
+import io.github.astrapi69.design.pattern.observer.Subjects;
+import io.github.astrapi69.design.pattern.observer.api.Observer;
 import io.github.astrapi69.design.pattern.observer.api.Subject;
+import io.github.astrapi69.design.pattern.observer.api.Versioned;
+import io.github.astrapi69.design.pattern.observer.registry.ObserverRegistry;
+import io.github.astrapi69.design.pattern.observer.registry.RegistrationMode;
+import lombok.NonNull;
 
 /**
  * The class {@link ChatRoom} represents a chat room where users can send and receive messages It
  * extends {@link AbstractSubject} and implements {@link Subject}, {@link Room}, and
  * {@link Serializable}
  *
+ * <p>
+ * Large rooms can broadcast in parallel with a
+ * {@link io.github.astrapi69.design.pattern.observer.dispatch.ParallelFanOut}, since the monitor of
+ * the room is held while it waits for the broadcast, the chat room users must not call synchronized
+ * methods of the room from their update
+ * </p>
+ *
+ * <p>
+ * The current message is published together with a version over a volatile reference, so
+ * {@link #getObservable()} does not contend for the monitor that a broadcast holds
+ * </p>
+ *
  * @param <M>
  *            the generic type of the message that will be sent in this chat room
  */
@@ -50,8 +70,8 @@ public class ChatRoom<M extends Message<?>> extends AbstractSubject<M, ChatRoomU
 	/** The Constant serialVersionUID for serialization compatibility */
 	private static final long serialVersionUID = 1L;
 
-	/** The list of observers (chat room users) */
-	private final List<ChatRoomUser<M>> observers;
+	/** The registry of the observers (chat room users) */
+	private final ObserverRegistry<ChatRoomUser<M>> observers;
 
 	/** The message history of the chat room */
 	private final List<M> messageHistory = new ArrayList<>();
@@ -59,28 +79,42 @@ public class ChatRoom<M extends Message<?>> extends AbstractSubject<M, ChatRoomU
 	/** The name of the chat room */
 	private final String name;
 
-	/** The observable message object */
-	private M observable;
+	/** The observable message object with its version */
+	private volatile Versioned<M> published;
+
+	/** The users of the chat room users, rebuilt only when the chat room users have changed */
+	private transient volatile ChatRoomUsers chatRoomUsers;
 
 	/**
-	 * Initialization block to create the list of observers
-	 **/
+	 * Constructor for a new chat room with an initial observable message and a name
+	 *
+	 * @param observable
+	 *            the initial observable message
+	 * @param name
+	 *            the name of the chat room
+	 */
+	public ChatRoom(final M observable, final String name)
 	{
-		observers = new ArrayList<>();
+		this(observable, name, RegistrationMode.EQUALITY);
 	}
 
 	/**
-	 * Constructor for a new chat room with an initial observable message and a name
+	 * Constructor for a new chat room with an initial observable message, a name and the mode that
+	 * decides how the chat room users are identified
 	 *
 	 * @param observable
 	 *            the initial observable message
 	 * @param name
 	 *            the name of the chat room
+	 * @param registrationMode
+	 *            the mode that decides if chat room users are identified by equality or by identity
 	 */
-	public ChatRoom(final M observable, final String name)
+	public ChatRoom(final M observable, final String name,
+		final @NonNull RegistrationMode registrationMode)
 	{
-		this.observable = observable;
+		this.published = Versioned.initial(observable);
 		this.name = name;
+		this.observers = new ObserverRegistry<>(registrationMode);
 	}
 
 	/**
@@ -91,14 +125,14 @@ public class ChatRoom<M extends Message<?>> extends AbstractSubject<M, ChatRoomU
 	 */
 	public ChatRoom(final String name)
 	{
-		this.name = name;
+		this(null, name);
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void add(final ChatRoomUser<M> observer)
+	public void add(final ChatRoomUser<M> observer)
 	{
 		observers.add(observer);
 	}
@@ -109,26 +143,48 @@ public class ChatRoom<M extends Message<?>> extends AbstractSubject<M, ChatRoomU
 	@Override
 	public void addAll(final Collection<ChatRoomUser<M>> observers)
 	{
-		for (final ChatRoomUser<M> chatUser : observers)
-		{
-			add(chatUser);
-		}
+		this.observers.addAll(observers);
+	}
+
+	/**
+	 * Gets an immutable snapshot of the chat room users
+	 *
+	 * @return the immutable snapshot of the chat room users
+	 */
+	@Override
+	public List<ChatRoomUser<M>> getObservers()
+	{
+		return observers.getObservers();
 	}
 
 	/**
-	 * Gets the chat room users as a list of {@link IUser} objects
+	 * Gets the chat room users as an immutable list of {@link IUser} objects The list is derived
+	 * from the snapshot of the chat room users and reused until a user joins or leaves It is keyed
+	 * by the version of the registry instead of the snapshot, so it does not keep weakly registered
+	 * chat room users alive
 	 *
-	 * @return the list of chat room users
+	 * @return the immutable list of chat room users
 	 */
 	@Override
 	public List<IUser<?>> getChatRoomUsers()
 	{
-		final List<IUser<?>> chatRoomUsers = new ArrayList<>();
-		for (final ChatRoomUser<M> chatUser : observers)
+		final long version = observers.getVersion();
+		final ChatRoomUsers users = chatRoomUsers;
+		if (users != null && users.version == version)
 		{
-			chatRoomUsers.add(chatUser.getUser());
+			return users.users;
 		}
-		return chatRoomUsers;
+		final List<ChatRoomUser<M>> current = getObservers();
+		final int size = current.size();
+		final List<IUser<?>> rebuilt = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+		{
+			rebuilt.add(current.get(i).getUser());
+		}
+		final ChatRoomUsers derived = new ChatRoomUsers(version,
+			Collections.unmodifiableList(rebuilt));
+		chatRoomUsers = derived;
+		return derived.users;
 	}
 
 	/**
@@ -156,9 +212,29 @@ public class ChatRoom<M extends Message<?>> extends AbstractSubject<M, ChatRoomU
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized M getObservable()
+	public M getObservable()
+	{
+		return published.getValue();
+	}
+
+	/**
+	 * Gets the version of the current observable message without locking
+	 *
+	 * @return the version that grows by one with every change
+	 */
+	public long getVersion()
+	{
+		return published.getVersion();
+	}
+
+	/**
+	 * Gets the current observable message together with its version without locking
+	 *
+	 * @return the consistent pair of the observable message and its version
+	 */
+	public Versioned<M> getVersioned()
 	{
-		return observable;
+		return published;
 	}
 
 	/**
@@ -167,11 +243,56 @@ public class ChatRoom<M extends Message<?>> extends AbstractSubject<M, ChatRoomU
 	@Override
 	public synchronized void setObservable(final M observable)
 	{
-		this.observable = observable;
+		this.published = published.next(observable);
 		messageHistory.add(observable);
 		updateObservers();
 	}
 
+	/**
+	 * Sends the given message to the chat room and notifies the chat room users asynchronously The
+	 * message becomes the current observable message and is added to the message history before
+	 * the chat room users are notified
+	 *
+	 * @param observable
+	 *            the message to send
+	 * @return the future that completes when all chat room users have been updated
+	 */
+	@Override
+	public CompletableFuture<Void> publishAsync(final M observable)
+	{
+		final List<ChatRoomUser<M>> current;
+		synchronized (this)
+		{
+			this.published = published.next(observable);
+			messageHistory.add(observable);
+			current = getObservers();
+		}
+		return dispatchAsync(current, observable);
+	}
+
+	/**
+	 * Sends the given messages to the chat room at once Every message is added to the message
+	 * history and each chat room user is notified once with the whole batch
+	 *
+	 * @param observables
+	 *            the messages in the order they were sent
+	 */
+	@Override
+	public synchronized void setObservables(final @NonNull Collection<M> observables)
+	{
+		if (observables.isEmpty())
+		{
+			return;
+		}
+		final List<M> batch = Collections.unmodifiableList(new ArrayList<>(observables));
+		this.published = published.next(batch.get(batch.size() - 1));
+		messageHistory.addAll(batch);
+		if (!Subjects.defer(this))
+		{
+			dispatch(getObservers(), Observer::updateBatch, batch);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -185,13 +306,9 @@ public class ChatRoom<M extends Message<?>> extends AbstractSubject<M, ChatRoomU
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void remove(final ChatRoomUser<M> observer)
+	public void remove(final ChatRoomUser<M> observer)
 	{
-		final int index = this.observers.indexOf(observer);
-		if (0 <= index)
-		{
-			this.observers.remove(observer);
-		}
+		observers.remove(observer);
 	}
 
 	/**
@@ -200,10 +317,7 @@ public class ChatRoom<M extends Message<?>> extends AbstractSubject<M, ChatRoomU
 	@Override
 	public void removeAll(final Collection<ChatRoomUser<M>> observers)
 	{
-		for (final ChatRoomUser<M> chatUser : observers)
-		{
-			remove(chatUser);
-		}
+		this.observers.removeAll(observers);
 	}
 
 	/**
@@ -222,9 +336,37 @@ public class ChatRoom<M extends Message<?>> extends AbstractSubject<M, ChatRoomU
 	@Override
 	public synchronized void updateObservers()
 	{
-		for (final ChatRoomUser<M> observer : this.observers)
+		if (Subjects.defer(this))
+		{
+			return;
+		}
+		dispatch(getObservers(), Observer::update, published.getValue());
+	}
+
+	/**
+	 * Holds the users that were derived from one version of the chat room users
+	 */
+	private static final class ChatRoomUsers
+	{
+
+		/** The version of the registry the users were derived from */
+		final long version;
+
+		/** The immutable list of the users of that version */
+		final List<IUser<?>> users;
+
+		/**
+		 * Instantiates a new {@link ChatRoomUsers} object
+		 *
+		 * @param version
+		 *            the version of the registry the users were derived from
+		 * @param users
+		 *            the immutable list of the users of that version
+		 */
+		ChatRoomUsers(final long version, final List<IUser<?>> users)
 		{
-			observer.update(observable);
+			this.version = version;
+			this.users = users;
 		}
 	}
 
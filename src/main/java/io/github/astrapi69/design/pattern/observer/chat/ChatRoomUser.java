@@ -28,6 +28,7 @@ import java.io.Serializable;
 
 import io.github.astrapi69.design.pattern.observer.api.ActionCommand;
 import io.github.astrapi69.design.pattern.observer.api.Observer;
+import io.github.astrapi69.design.pattern.observer.api.Versioned;
 
 /**
  * The class {@link ChatRoomUser} represents a user in a chat room who can send and receive messages
@@ -35,6 +36,17 @@ import io.github.astrapi69.design.pattern.observer.api.Observer;
  * {@link ActionCommand} to define actions when a message is received, and {@link Serializable} for
  * serialization support
  *
+ * <p>
+ * The user registers itself at the given chat room, if the chat room was created with
+ * {@link io.github.astrapi69.design.pattern.observer.registry.RegistrationMode#WEAK} the user is
+ * removed automatically as soon as it is no longer referenced elsewhere
+ * </p>
+ *
+ * <p>
+ * The current message is published together with a version over a volatile reference, so
+ * {@link #getObservable()} never waits for an update that is in progress
+ * </p>
+ *
  * @param <M>
  *            the generic type of the message that will be sent and observed in the chat room
  */
@@ -54,8 +66,8 @@ public abstract class ChatRoomUser<M extends Message<?>>
 	/** The chat room (subject) that this user is part of */
 	protected ChatRoom<M> subject;
 
-	/** The observable message currently observed by this user */
-	private M observable;
+	/** The observable message currently observed by this user with its version */
+	private volatile Versioned<M> published;
 
 	/**
 	 * Instantiates a new chat room user
@@ -68,19 +80,39 @@ public abstract class ChatRoomUser<M extends Message<?>>
 	public ChatRoomUser(final ChatRoom<M> room, final IUser<?> user)
 	{
 		this.subject = room;
-		this.observable = this.subject.getObservable();
+		this.published = Versioned.initial(this.subject.getObservable());
 		this.user = user;
 		this.subject.add(this);
 	}
 
 	/**
-	 * Gets the observable message currently observed by this user
+	 * Gets the observable message currently observed by this user without locking
 	 *
 	 * @return the observable message
 	 */
-	public synchronized M getObservable()
+	public M getObservable()
+	{
+		return published.getValue();
+	}
+
+	/**
+	 * Gets the version of the current observable message without locking
+	 *
+	 * @return the version that grows by one with every change
+	 */
+	public long getVersion()
+	{
+		return published.getVersion();
+	}
+
+	/**
+	 * Gets the current observable message together with its version without locking
+	 *
+	 * @return the consistent pair of the observable message and its version
+	 */
+	public Versioned<M> getVersioned()
 	{
-		return observable;
+		return published;
 	}
 
 	/**
@@ -110,7 +142,7 @@ public abstract class ChatRoomUser<M extends Message<?>>
 	@Override
 	public synchronized void update(final M observable)
 	{
-		this.observable = observable;
+		this.published = published.next(observable);
 		execute();
 	}
 
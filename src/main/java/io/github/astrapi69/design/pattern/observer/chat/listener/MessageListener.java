@@ -24,6 +24,8 @@
  */
 package io.github.astrapi69.design.pattern.observer.chat.listener;
 
+import java.util.List;
+
 /**
  * The listener interface for receiving message events The class that is interested in processing a
  * message implements this interface, and the object created with that class is registered with a
@@ -43,4 +45,21 @@ public interface MessageListener<T>
 	 *            the event containing the message to be processed
 	 */
 	void onMessage(final T event);
+
+	/**
+	 * Handles the given message events at once The default implementation calls
+	 * {@link #onMessage(Object)} for each event in order, listeners that can process the whole
+	 * batch more efficiently should override this method
+	 *
+	 * @param events
+	 *            the unmodifiable list of message events in the order they were fired
+	 */
+	default void onMessages(final List<T> events)
+	{
+		final int size = events.size();
+		for (int i = 0; i < size; i++)
+		{
+			onMessage(events.get(i));
+		}
+	}
 }
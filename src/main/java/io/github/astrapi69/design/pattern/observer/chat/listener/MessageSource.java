@@ -61,6 +61,22 @@ public interface MessageSource<T>
 	 */
 	void fireMessage(final T source);
 
+	/**
+	 * Fires the given messages to all registered listeners The default implementation calls
+	 * {@link #fireMessage(Object)} for each message, implementations should notify each listener
+	 * only once with the whole batch over {@link MessageListener#onMessages(java.util.List)}
+	 *
+	 * @param sources
+	 *            the message source objects to be sent to listeners in order
+	 */
+	default void fireMessages(final Collection<T> sources)
+	{
+		for (final T source : sources)
+		{
+			fireMessage(source);
+		}
+	}
+
 	/**
 	 * Removes the given {@link MessageListener} from the list of listeners that receive messages
 	 *
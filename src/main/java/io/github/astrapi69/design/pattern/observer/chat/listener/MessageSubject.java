@@ -26,7 +26,18 @@ package io.github.astrapi69.design.pattern.observer.chat.listener;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import io.github.astrapi69.design.pattern.observer.dispatch.AsyncDispatcher;
+import io.github.astrapi69.design.pattern.observer.dispatch.Watchdog;
+import io.github.astrapi69.design.pattern.observer.metrics.DispatchMetrics;
+import io.github.astrapi69.design.pattern.observer.registry.ObserverRegistry;
+import io.github.astrapi69.design.pattern.observer.registry.RegistrationMode;
+import lombok.NonNull;
 
 /**
  * The class {@link MessageSubject} represents a subject in the Observer design pattern for handling
@@ -38,24 +49,30 @@ import java.util.List;
  */
 public class MessageSubject<T> implements MessageSource<T>
 {
-	/** The list of registered message listeners */
-	private final List<MessageListener<T>> messageListeners;
+	/** The registry of the registered message listeners */
+	private final ObserverRegistry<MessageListener<T>> messageListeners;
 
 	/** The current message source */
 	private T source;
 
+	/** The executor that notifies the listeners on {@link #fireMessageAsync(Object)} */
+	private volatile Executor executor = ForkJoinPool.commonPool();
+
+	/** The metrics that record the fired messages, null if the messages are not recorded */
+	private volatile DispatchMetrics metrics;
+
 	/**
-	 * Initialization block to create the list of message listeners
-	 **/
-	{
-		messageListeners = new ArrayList<>();
-	}
+	 * The watchdog that enforces a timeout on every listener of {@link #fireMessageAsync(Object)},
+	 * null if the listeners are not timed out
+	 */
+	private volatile Watchdog watchdog;
 
 	/**
 	 * Instantiates a new {@code MessageSubject} with no initial source
 	 */
 	public MessageSubject()
 	{
+		this(null);
 	}
 
 	/**
@@ -65,15 +82,48 @@ public class MessageSubject<T> implements MessageSource<T>
 	 *            the initial message source
 	 */
 	public MessageSubject(final T source)
+	{
+		this(source, RegistrationMode.EQUALITY);
+	}
+
+	/**
+	 * Instantiates a new {@code MessageSubject} with the given initial source and the mode that
+	 * decides how the message listeners are identified
+	 *
+	 * @param source
+	 *            the initial message source
+	 * @param registrationMode
+	 *            the mode that decides if message listeners are identified by equality or by
+	 *            identity
+	 */
+	public MessageSubject(final T source, final @NonNull RegistrationMode registrationMode)
+	{
+		this(source, new ObserverRegistry<>(registrationMode));
+	}
+
+	/**
+	 * Instantiates a new {@code MessageSubject} with the specified source and the registry
+	 * that holds the message listeners, for instance a
+	 * {@link io.github.astrapi69.design.pattern.observer.registry.ShardedObserverRegistry} for
+	 * subjects with a high churn of message listeners
+	 *
+	 * @param source
+	 *            the initial message source
+	 * @param messageListeners
+	 *            the registry that holds the message listeners
+	 */
+	public MessageSubject(final T source,
+		final @NonNull ObserverRegistry<MessageListener<T>> messageListeners)
 	{
 		this.source = source;
+		this.messageListeners = messageListeners;
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void add(final MessageListener<T> messageListener)
+	public void add(final MessageListener<T> messageListener)
 	{
 		messageListeners.add(messageListener);
 	}
@@ -82,7 +132,7 @@ public class MessageSubject<T> implements MessageSource<T>
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void addAll(final Collection<MessageListener<T>> messageListeners)
+	public void addAll(final Collection<MessageListener<T>> messageListeners)
 	{
 		this.messageListeners.addAll(messageListeners);
 	}
@@ -92,9 +142,17 @@ public class MessageSubject<T> implements MessageSource<T>
 	 */
 	private synchronized void fireMessage()
 	{
-		for (final MessageListener<T> messageListener : messageListeners)
+		final DispatchMetrics metrics = this.metrics;
+		if (metrics != null)
 		{
-			messageListener.onMessage(source);
+			metrics.dispatch(messageListeners.getObservers(), MessageListener::onMessage, source);
+			return;
+		}
+		final List<MessageListener<T>> listeners = messageListeners.getObservers();
+		final int size = listeners.size();
+		for (int i = 0; i < size; i++)
+		{
+			listeners.get(i).onMessage(source);
 		}
 	}
 
@@ -108,11 +166,140 @@ public class MessageSubject<T> implements MessageSource<T>
 		fireMessage();
 	}
 
+	/**
+	 * Fires the given messages and notifies each listener once with the whole batch over
+	 * {@link MessageListener#onMessages(List)} The last message becomes the current source
+	 *
+	 * @param sources
+	 *            the message source objects to be sent to listeners in order
+	 */
+	@Override
+	public synchronized void fireMessages(final @NonNull Collection<T> sources)
+	{
+		if (sources.isEmpty())
+		{
+			return;
+		}
+		final List<T> batch = Collections.unmodifiableList(new ArrayList<>(sources));
+		this.source = batch.get(batch.size() - 1);
+		final DispatchMetrics metrics = this.metrics;
+		if (metrics != null)
+		{
+			metrics.dispatch(messageListeners.getObservers(), MessageListener::onMessages, batch);
+			return;
+		}
+		final List<MessageListener<T>> listeners = messageListeners.getObservers();
+		final int size = listeners.size();
+		for (int i = 0; i < size; i++)
+		{
+			listeners.get(i).onMessages(batch);
+		}
+	}
+
+	/**
+	 * Fires the given message asynchronously to all registered listeners on the configured
+	 * {@link #getExecutor() executor} The calling thread returns right after the messages are
+	 * handed off
+	 *
+	 * <p>
+	 * The returned future completes when every listener has processed the message A failing
+	 * listener does not prevent the notification of the others, all failures are collected in a
+	 * {@link io.github.astrapi69.design.pattern.observer.dispatch.DispatchException} that completes
+	 * the future exceptionally
+	 * </p>
+	 *
+	 * @param source
+	 *            the message source object to be sent to listeners
+	 * @return the future that completes when all listeners have processed the message
+	 */
+	public CompletableFuture<Void> fireMessageAsync(final T source)
+	{
+		final List<MessageListener<T>> listeners;
+		synchronized (this)
+		{
+			this.source = source;
+			listeners = messageListeners.getObservers();
+		}
+		final DispatchMetrics metrics = this.metrics;
+		if (metrics != null)
+		{
+			return metrics.dispatchAsync(listeners, listener -> listener.onMessage(source),
+				executor, watchdog);
+		}
+		return AsyncDispatcher.dispatch(listeners, listener -> listener.onMessage(source),
+			executor, watchdog);
+	}
+
+	/**
+	 * Gets the executor that notifies the listeners on {@link #fireMessageAsync(Object)}
+	 *
+	 * @return the executor
+	 */
+	public Executor getExecutor()
+	{
+		return executor;
+	}
+
+	/**
+	 * Sets the executor that notifies the listeners on {@link #fireMessageAsync(Object)}
+	 *
+	 * @param executor
+	 *            the new executor
+	 */
+	public void setExecutor(final @NonNull Executor executor)
+	{
+		this.executor = executor;
+	}
+
+	/**
+	 * Gets the metrics that record the fired messages
+	 *
+	 * @return the metrics, or null if the messages are not recorded
+	 */
+	public DispatchMetrics getMetrics()
+	{
+		return metrics;
+	}
+
+	/**
+	 * Sets the metrics that record the fired messages
+	 *
+	 * @param metrics
+	 *            the new metrics, or null to stop recording
+	 */
+	public void setMetrics(final DispatchMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Gets the watchdog that enforces a timeout on every listener of
+	 * {@link #fireMessageAsync(Object)}
+	 *
+	 * @return the watchdog, or null if the listeners are not timed out
+	 */
+	public Watchdog getWatchdog()
+	{
+		return watchdog;
+	}
+
+	/**
+	 * Sets the watchdog that enforces a timeout on every listener of
+	 * {@link #fireMessageAsync(Object)}
+	 *
+	 * @param watchdog
+	 *            the new watchdog, or null to stop timing out the listeners
+	 */
+	public void setWatchdog(final Watchdog watchdog)
+	{
+		this.watchdog = watchdog;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void remove(final MessageListener<T> messageListener)
+	public void remove(final MessageListener<T> messageListener)
 	{
 		messageListeners.remove(messageListener);
 	}
@@ -121,7 +308,7 @@ public class MessageSubject<T> implements MessageSource<T>
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void removeAll(final Collection<MessageListener<T>> messageListeners)
+	public void removeAll(final Collection<MessageListener<T>> messageListeners)
 	{
 		this.messageListeners.removeAll(messageListeners);
 	}
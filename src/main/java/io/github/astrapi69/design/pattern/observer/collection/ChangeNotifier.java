@@ -0,0 +1,237 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.collection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import io.github.astrapi69.design.pattern.observer.registry.ObserverRegistry;
+
+/**
+ * The class {@link ChangeNotifier} collects the change records of an observable collection and
+ * notifies the change listeners and the whole value observers once per operation
+ *
+ * <p>
+ * Changes that are recorded while a batch is open are held back until the outermost batch ends,
+ * and a change that continues the previous one is merged into it if a builder factory is given The
+ * last change is accumulated in a mutable {@link ChangeBuilder} and frozen when the next change
+ * cannot be merged or the changes are notified, so merging a run of changes costs linear time
+ * </p>
+ *
+ * @param <C>
+ *            the generic type of the change records
+ * @param <V>
+ *            the generic type of the whole value
+ */
+final class ChangeNotifier<C, V>
+{
+
+	/** The registry of the change listeners */
+	private final ObserverRegistry<ChangeListener<C>> changeListeners = new ObserverRegistry<>();
+
+	/** The registry of the observers of the whole value */
+	private final ObserverRegistry<Observer<V>> observers = new ObserverRegistry<>();
+
+	/** The unmodifiable view of the whole value that is passed to the observers */
+	private final V view;
+
+	/** The function that opens a builder for a change, null if changes are never merged */
+	private final Function<? super C, ? extends ChangeBuilder<C>> builders;
+
+	/** The frozen changes that are not yet notified */
+	private List<C> pending = new ArrayList<>();
+
+	/** The builder of the last change that is not yet notified, null if there is none */
+	private ChangeBuilder<C> last;
+
+	/** The number of open batches */
+	private int depth;
+
+	/**
+	 * Instantiates a new {@link ChangeNotifier}
+	 *
+	 * @param view
+	 *            the unmodifiable view of the whole value
+	 * @param builders
+	 *            the function that opens a builder that later changes are merged into, null if
+	 *            changes are never merged
+	 */
+	ChangeNotifier(final V view, final Function<? super C, ? extends ChangeBuilder<C>> builders)
+	{
+		this.view = view;
+		this.builders = builders;
+	}
+
+	/**
+	 * Adds the given change listener
+	 *
+	 * @param changeListener
+	 *            the change listener
+	 */
+	void addChangeListener(final ChangeListener<C> changeListener)
+	{
+		changeListeners.add(changeListener);
+	}
+
+	/**
+	 * Removes the given change listener
+	 *
+	 * @param changeListener
+	 *            the change listener
+	 */
+	void removeChangeListener(final ChangeListener<C> changeListener)
+	{
+		changeListeners.remove(changeListener);
+	}
+
+	/**
+	 * Adds the given observer of the whole value
+	 *
+	 * @param observer
+	 *            the observer
+	 */
+	void addObserver(final Observer<V> observer)
+	{
+		observers.add(observer);
+	}
+
+	/**
+	 * Removes the given observer of the whole value
+	 *
+	 * @param observer
+	 *            the observer
+	 */
+	void removeObserver(final Observer<V> observer)
+	{
+		observers.remove(observer);
+	}
+
+	/**
+	 * Opens a batch, the changes are held back until the outermost batch ends
+	 */
+	void begin()
+	{
+		depth++;
+	}
+
+	/**
+	 * Ends a batch and notifies the held back changes if it was the outermost one
+	 */
+	void end()
+	{
+		depth--;
+		if (depth == 0 && (last != null || !pending.isEmpty()))
+		{
+			flush();
+		}
+	}
+
+	/**
+	 * Records the given change and notifies it right away if no batch is open Nothing is recorded
+	 * if nobody listens
+	 *
+	 * @param change
+	 *            the change
+	 */
+	void record(final C change)
+	{
+		if (changeListeners.isEmpty() && observers.isEmpty())
+		{
+			return;
+		}
+		if (builders == null)
+		{
+			pending.add(change);
+		}
+		else if (last == null || !last.merge(change))
+		{
+			if (last != null)
+			{
+				pending.add(last.build());
+			}
+			last = builders.apply(change);
+		}
+		if (depth == 0)
+		{
+			flush();
+		}
+	}
+
+	/**
+	 * Notifies the pending changes to the change listeners and the whole value to the observers
+	 */
+	private void flush()
+	{
+		if (last != null)
+		{
+			pending.add(last.build());
+			last = null;
+		}
+		final List<C> changes = Collections.unmodifiableList(pending);
+		pending = new ArrayList<>();
+		final List<ChangeListener<C>> currentListeners = changeListeners.getObservers();
+		final int listenerCount = currentListeners.size();
+		for (int i = 0; i < listenerCount; i++)
+		{
+			currentListeners.get(i).onChanges(changes);
+		}
+		final List<Observer<V>> currentObservers = observers.getObservers();
+		final int observerCount = currentObservers.size();
+		for (int i = 0; i < observerCount; i++)
+		{
+			currentObservers.get(i).update(view);
+		}
+	}
+
+	/**
+	 * Accumulates a change and the later changes that continue it into one change
+	 *
+	 * @param <C>
+	 *            the generic type of the change records
+	 */
+	interface ChangeBuilder<C>
+	{
+
+		/**
+		 * Merges the given change into the accumulated change if it continues it
+		 *
+		 * @param change
+		 *            the later change
+		 * @return true if the change was merged, false if it has to be recorded on its own
+		 */
+		boolean merge(C change);
+
+		/**
+		 * Freezes the accumulated change
+		 *
+		 * @return the immutable accumulated change
+		 */
+		C build();
+	}
+
+}
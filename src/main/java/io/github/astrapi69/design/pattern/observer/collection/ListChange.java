@@ -0,0 +1,251 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.collection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The class {@link ListChange} records the change of a contiguous range of an
+ * {@link ObservableList} The elements in {@link #getRemoved()} were removed at the index
+ * {@link #getFrom()} and the elements in {@link #getAdded()} were inserted at the same index The
+ * index refers to the list after all earlier changes of the same notification were applied
+ *
+ * @param <E>
+ *            the generic type of the elements
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class ListChange<E>
+{
+
+	/** The index where the range starts */
+	private final int from;
+
+	/** The unmodifiable list of the removed elements */
+	private final List<E> removed;
+
+	/** The unmodifiable list of the added elements */
+	private final List<E> added;
+
+	/**
+	 * Instantiates a new {@link ListChange}
+	 *
+	 * @param from
+	 *            the index where the range starts
+	 * @param removed
+	 *            the unmodifiable list of the removed elements
+	 * @param added
+	 *            the unmodifiable list of the added elements
+	 */
+	public ListChange(final int from, final @NonNull List<E> removed, final @NonNull List<E> added)
+	{
+		this.from = from;
+		this.removed = removed;
+		this.added = added;
+	}
+
+	/**
+	 * Gets the kind of this change
+	 *
+	 * @return {@link ChangeType#ADDED} if elements were only added, {@link ChangeType#REMOVED} if
+	 *         elements were only removed, otherwise {@link ChangeType#REPLACED}
+	 */
+	public ChangeType getType()
+	{
+		if (removed.isEmpty())
+		{
+			return ChangeType.ADDED;
+		}
+		return added.isEmpty() ? ChangeType.REMOVED : ChangeType.REPLACED;
+	}
+
+	/**
+	 * Gets the index after the range of the added elements
+	 *
+	 * @return the exclusive end index of the range after the change
+	 */
+	public int getTo()
+	{
+		return from + added.size();
+	}
+
+	/**
+	 * The class {@link Builder} accumulates a list change and the later changes that continue its
+	 * range into mutable lists and freezes them into one {@link ListChange}
+	 *
+	 * @param <E>
+	 *            the generic type of the elements
+	 */
+	static final class Builder<E> implements ChangeNotifier.ChangeBuilder<ListChange<E>>
+	{
+
+		/** The first change, that is built unchanged if no later change was merged */
+		private final ListChange<E> first;
+
+		/** The kind of the accumulated change */
+		private final ChangeType type;
+
+		/** The index where the accumulated range starts */
+		private int from;
+
+		/** The accumulated removed elements, null while no later change was merged */
+		private List<E> removed;
+
+		/**
+		 * The removed elements that were merged in front of the range, in the order they were
+		 * merged, null while none were merged
+		 */
+		private List<List<E>> leadingRemoved;
+
+		/** The accumulated added elements, null while no later change was merged */
+		private List<E> added;
+
+		/**
+		 * Instantiates a new {@link Builder} with the given first change
+		 *
+		 * @param first
+		 *            the first change
+		 */
+		Builder(final ListChange<E> first)
+		{
+			this.first = first;
+			this.type = first.getType();
+			this.from = first.from;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean merge(final ListChange<E> second)
+		{
+			if (type != second.getType())
+			{
+				return false;
+			}
+			switch (type)
+			{
+				case ADDED :
+					if (second.from != from + addedSize())
+					{
+						return false;
+					}
+					open();
+					added.addAll(second.added);
+					return true;
+				case REMOVED :
+					if (second.from == from)
+					{
+						open();
+						removed.addAll(second.removed);
+						return true;
+					}
+					if (second.from + second.removed.size() == from)
+					{
+						open();
+						if (leadingRemoved == null)
+						{
+							leadingRemoved = new ArrayList<>();
+						}
+						leadingRemoved.add(second.removed);
+						from = second.from;
+						return true;
+					}
+					return false;
+				default :
+					if (first.removed.size() != first.added.size()
+						|| second.removed.size() != second.added.size()
+						|| second.from != from + addedSize())
+					{
+						return false;
+					}
+					open();
+					removed.addAll(second.removed);
+					added.addAll(second.added);
+					return true;
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public ListChange<E> build()
+		{
+			if (removed == null)
+			{
+				return first;
+			}
+			List<E> frozenRemoved = removed;
+			if (leadingRemoved != null)
+			{
+				int size = removed.size();
+				for (final List<E> leading : leadingRemoved)
+				{
+					size += leading.size();
+				}
+				frozenRemoved = new ArrayList<>(size);
+				for (int i = leadingRemoved.size() - 1; i >= 0; i--)
+				{
+					frozenRemoved.addAll(leadingRemoved.get(i));
+				}
+				frozenRemoved.addAll(removed);
+			}
+			return new ListChange<>(from, Collections.unmodifiableList(frozenRemoved),
+				Collections.unmodifiableList(added));
+		}
+
+		/**
+		 * Gets the number of the accumulated added elements
+		 *
+		 * @return the number of the added elements
+		 */
+		private int addedSize()
+		{
+			return added != null ? added.size() : first.added.size();
+		}
+
+		/**
+		 * Copies the elements of the first change into the mutable lists before the first merge
+		 */
+		private void open()
+		{
+			if (removed == null)
+			{
+				removed = new ArrayList<>(first.removed);
+				added = new ArrayList<>(first.added);
+			}
+		}
+	}
+
+}
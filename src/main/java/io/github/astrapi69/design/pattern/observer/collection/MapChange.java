@@ -0,0 +1,80 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.collection;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The class {@link MapChange} records that an entry of an {@link ObservableMap} was added, removed
+ * or got a new value
+ *
+ * @param <K>
+ *            the generic type of the keys
+ * @param <V>
+ *            the generic type of the values
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class MapChange<K, V>
+{
+
+	/** The kind of this change */
+	private final ChangeType type;
+
+	/** The key of the changed entry */
+	private final K key;
+
+	/** The value before the change, null if the entry was added */
+	private final V oldValue;
+
+	/** The value after the change, null if the entry was removed */
+	private final V newValue;
+
+	/**
+	 * Instantiates a new {@link MapChange}
+	 *
+	 * @param type
+	 *            the kind of this change
+	 * @param key
+	 *            the key of the changed entry
+	 * @param oldValue
+	 *            the value before the change
+	 * @param newValue
+	 *            the value after the change
+	 */
+	public MapChange(final @NonNull ChangeType type, final K key, final V oldValue,
+		final V newValue)
+	{
+		this.type = type;
+		this.key = key;
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+	}
+
+}
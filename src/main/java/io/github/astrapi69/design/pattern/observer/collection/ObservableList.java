@@ -0,0 +1,391 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.collection;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import lombok.NonNull;
+
+/**
+ * The class {@link ObservableList} is a list that notifies its {@link ChangeListener}s with
+ * {@link ListChange} records of the ranges that changed, so a listener does not have to compare the
+ * whole list to find out what changed
+ *
+ * <p>
+ * All changes of one operation, for instance {@link #addAll(Collection)}, {@link #clear()},
+ * {@link #removeIf(Predicate)} or {@link #sort(Comparator)}, are notified together, and
+ * contiguous changes are merged into one record Several operations can be combined into one
+ * notification with {@link #modify(Consumer)} Observers of the whole list still receive an
+ * unmodifiable view of the list after every notification
+ * </p>
+ *
+ * <p>
+ * Like the lists of {@code java.util}, this list is not thread safe and the listeners are notified
+ * on the thread that changes the list
+ * </p>
+ *
+ * @param <E>
+ *            the generic type of the elements
+ */
+public class ObservableList<E> extends AbstractList<E> implements RandomAccess
+{
+
+	/** The elements of this list */
+	private final List<E> elements;
+
+	/** The notifier of the changes */
+	private final ChangeNotifier<ListChange<E>, List<E>> notifier;
+
+	/**
+	 * Instantiates a new empty {@link ObservableList}
+	 */
+	public ObservableList()
+	{
+		this(Collections.emptyList());
+	}
+
+	/**
+	 * Instantiates a new {@link ObservableList} with the given initial elements
+	 *
+	 * @param elements
+	 *            the initial elements
+	 */
+	public ObservableList(final @NonNull Collection<? extends E> elements)
+	{
+		this.elements = new ArrayList<>(elements);
+		this.notifier = new ChangeNotifier<>(Collections.unmodifiableList(this),
+			ListChange.Builder::new);
+	}
+
+	/**
+	 * Adds the given change listener
+	 *
+	 * @param changeListener
+	 *            the change listener
+	 */
+	public void addChangeListener(final @NonNull ChangeListener<ListChange<E>> changeListener)
+	{
+		notifier.addChangeListener(changeListener);
+	}
+
+	/**
+	 * Removes the given change listener
+	 *
+	 * @param changeListener
+	 *            the change listener
+	 */
+	public void removeChangeListener(final ChangeListener<ListChange<E>> changeListener)
+	{
+		notifier.removeChangeListener(changeListener);
+	}
+
+	/**
+	 * Adds the given observer that receives an unmodifiable view of the whole list after every
+	 * notification
+	 *
+	 * @param observer
+	 *            the observer
+	 */
+	public void addObserver(final @NonNull Observer<List<E>> observer)
+	{
+		notifier.addObserver(observer);
+	}
+
+	/**
+	 * Removes the given observer of the whole list
+	 *
+	 * @param observer
+	 *            the observer
+	 */
+	public void removeObserver(final Observer<List<E>> observer)
+	{
+		notifier.removeObserver(observer);
+	}
+
+	/**
+	 * Applies the given operation to this list and notifies all its changes together
+	 *
+	 * @param operation
+	 *            the operation that changes this list
+	 */
+	public void modify(final @NonNull Consumer<? super List<E>> operation)
+	{
+		notifier.begin();
+		try
+		{
+			operation.accept(this);
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public E get(final int index)
+	{
+		return elements.get(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size()
+	{
+		return elements.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public E set(final int index, final E element)
+	{
+		final E previous = elements.set(index, element);
+		notifier.record(new ListChange<>(index, Collections.singletonList(previous),
+			Collections.singletonList(element)));
+		return previous;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void add(final int index, final E element)
+	{
+		elements.add(index, element);
+		modCount++;
+		notifier.record(
+			new ListChange<>(index, Collections.emptyList(), Collections.singletonList(element)));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public E remove(final int index)
+	{
+		final E removed = elements.remove(index);
+		modCount++;
+		notifier.record(
+			new ListChange<>(index, Collections.singletonList(removed), Collections.emptyList()));
+		return removed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean addAll(final Collection<? extends E> collection)
+	{
+		return addAll(elements.size(), collection);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean addAll(final int index, final Collection<? extends E> collection)
+	{
+		final List<E> added = Collections.unmodifiableList(new ArrayList<>(collection));
+		if (added.isEmpty())
+		{
+			rangeCheckForAdd(index);
+			return false;
+		}
+		elements.addAll(index, added);
+		modCount++;
+		notifier.record(new ListChange<>(index, Collections.emptyList(), added));
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void removeRange(final int fromIndex, final int toIndex)
+	{
+		if (fromIndex == toIndex)
+		{
+			return;
+		}
+		final List<E> range = elements.subList(fromIndex, toIndex);
+		final List<E> removed = Collections.unmodifiableList(new ArrayList<>(range));
+		range.clear();
+		modCount++;
+		notifier.record(new ListChange<>(fromIndex, removed, Collections.emptyList()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean removeIf(final @NonNull Predicate<? super E> filter)
+	{
+		return batchRemove(filter);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean removeAll(final @NonNull Collection<?> collection)
+	{
+		return batchRemove(collection::contains);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean retainAll(final @NonNull Collection<?> collection)
+	{
+		return batchRemove(element -> !collection.contains(element));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void replaceAll(final UnaryOperator<E> operator)
+	{
+		notifier.begin();
+		try
+		{
+			super.replaceAll(operator);
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * Sorts this list and records the change of the whole list as one replacement
+	 *
+	 * @param comparator
+	 *            the comparator, null for the natural order
+	 */
+	@Override
+	public void sort(final Comparator<? super E> comparator)
+	{
+		if (elements.isEmpty())
+		{
+			return;
+		}
+		final List<E> previous = Collections.unmodifiableList(new ArrayList<>(elements));
+		elements.sort(comparator);
+		modCount++;
+		notifier.record(new ListChange<>(0, previous,
+			Collections.unmodifiableList(new ArrayList<>(elements))));
+	}
+
+	/**
+	 * Removes all elements that match the given filter in one pass over the elements and records
+	 * one change for every contiguous range of removed elements The filter is tested on all
+	 * elements before the list is changed, so a failing filter leaves the list unchanged
+	 *
+	 * @param filter
+	 *            the filter that matches the elements to remove
+	 * @return true if any element was removed
+	 */
+	private boolean batchRemove(final Predicate<? super E> filter)
+	{
+		final int size = elements.size();
+		final BitSet removals = new BitSet(size);
+		for (int i = 0; i < size; i++)
+		{
+			if (filter.test(elements.get(i)))
+			{
+				removals.set(i);
+			}
+		}
+		if (removals.isEmpty())
+		{
+			return false;
+		}
+		notifier.begin();
+		try
+		{
+			int kept = 0;
+			int index = 0;
+			int from;
+			while ((from = removals.nextSetBit(index)) >= 0)
+			{
+				for (; index < from; index++)
+				{
+					elements.set(kept++, elements.get(index));
+				}
+				final int to = removals.nextClearBit(from);
+				notifier.record(new ListChange<>(kept,
+					Collections.unmodifiableList(new ArrayList<>(elements.subList(from, to))),
+					Collections.emptyList()));
+				index = to;
+			}
+			for (; index < size; index++)
+			{
+				elements.set(kept++, elements.get(index));
+			}
+			elements.subList(kept, size).clear();
+			modCount++;
+		}
+		finally
+		{
+			notifier.end();
+		}
+		return true;
+	}
+
+	/**
+	 * Checks the given index for an insertion
+	 *
+	 * @param index
+	 *            the index
+	 */
+	private void rangeCheckForAdd(final int index)
+	{
+		if (index < 0 || index > elements.size())
+		{
+			throw new IndexOutOfBoundsException(
+				"Index: " + index + ", Size: " + elements.size());
+		}
+	}
+
+}
@@ -0,0 +1,672 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.collection;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import lombok.NonNull;
+
+/**
+ * The class {@link ObservableMap} is a map that notifies its {@link ChangeListener}s with a
+ * {@link MapChange} record for every added, removed or replaced entry
+ *
+ * <p>
+ * All changes of one operation, for instance {@link #putAll(Map)}, {@link #clear()},
+ * {@link #replaceAll(BiFunction)} or a bulk removal through {@link #entrySet()}, {@link #keySet()}
+ * or {@link #values()}, are notified together Several operations can be combined into one
+ * notification with {@link #modify(Consumer)} Observers of the whole map still receive an
+ * unmodifiable view of the map after every notification The map keeps the insertion order
+ * </p>
+ *
+ * <p>
+ * Like the maps of {@code java.util}, this map is not thread safe and the listeners are notified on
+ * the thread that changes the map
+ * </p>
+ *
+ * @param <K>
+ *            the generic type of the keys
+ * @param <V>
+ *            the generic type of the values
+ */
+public class ObservableMap<K, V> extends AbstractMap<K, V>
+{
+
+	/** The entries of this map */
+	private final Map<K, V> entries;
+
+	/** The notifier of the changes */
+	private final ChangeNotifier<MapChange<K, V>, Map<K, V>> notifier;
+
+	/** The entry set view, created on first use */
+	private Set<Map.Entry<K, V>> entrySet;
+
+	/** The key set view, created on first use */
+	private Set<K> keySet;
+
+	/** The values view, created on first use */
+	private Collection<V> values;
+
+	/**
+	 * Instantiates a new empty {@link ObservableMap}
+	 */
+	public ObservableMap()
+	{
+		this(Collections.emptyMap());
+	}
+
+	/**
+	 * Instantiates a new {@link ObservableMap} with the given initial entries
+	 *
+	 * @param entries
+	 *            the initial entries
+	 */
+	public ObservableMap(final @NonNull Map<? extends K, ? extends V> entries)
+	{
+		this.entries = new LinkedHashMap<>(entries);
+		this.notifier = new ChangeNotifier<>(Collections.unmodifiableMap(this), null);
+	}
+
+	/**
+	 * Adds the given change listener
+	 *
+	 * @param changeListener
+	 *            the change listener
+	 */
+	public void addChangeListener(final @NonNull ChangeListener<MapChange<K, V>> changeListener)
+	{
+		notifier.addChangeListener(changeListener);
+	}
+
+	/**
+	 * Removes the given change listener
+	 *
+	 * @param changeListener
+	 *            the change listener
+	 */
+	public void removeChangeListener(final ChangeListener<MapChange<K, V>> changeListener)
+	{
+		notifier.removeChangeListener(changeListener);
+	}
+
+	/**
+	 * Adds the given observer that receives an unmodifiable view of the whole map after every
+	 * notification
+	 *
+	 * @param observer
+	 *            the observer
+	 */
+	public void addObserver(final @NonNull Observer<Map<K, V>> observer)
+	{
+		notifier.addObserver(observer);
+	}
+
+	/**
+	 * Removes the given observer of the whole map
+	 *
+	 * @param observer
+	 *            the observer
+	 */
+	public void removeObserver(final Observer<Map<K, V>> observer)
+	{
+		notifier.removeObserver(observer);
+	}
+
+	/**
+	 * Applies the given operation to this map and notifies all its changes together
+	 *
+	 * @param operation
+	 *            the operation that changes this map
+	 */
+	public void modify(final @NonNull Consumer<? super Map<K, V>> operation)
+	{
+		notifier.begin();
+		try
+		{
+			operation.accept(this);
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean containsKey(final Object key)
+	{
+		return entries.containsKey(key);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public V get(final Object key)
+	{
+		return entries.get(key);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public V put(final K key, final V value)
+	{
+		final boolean replaced = entries.containsKey(key);
+		final V previous = entries.put(key, value);
+		notifier.record(
+			new MapChange<>(replaced ? ChangeType.REPLACED : ChangeType.ADDED, key, previous, value));
+		return previous;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public V remove(final Object key)
+	{
+		if (!entries.containsKey(key))
+		{
+			return null;
+		}
+		final V previous = entries.remove(key);
+		notifier.record(new MapChange<>(ChangeType.REMOVED, (K)key, previous, null));
+		return previous;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void putAll(final Map<? extends K, ? extends V> map)
+	{
+		notifier.begin();
+		try
+		{
+			super.putAll(map);
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void replaceAll(final BiFunction<? super K, ? super V, ? extends V> function)
+	{
+		notifier.begin();
+		try
+		{
+			for (final Map.Entry<K, V> entry : entrySet())
+			{
+				entry.setValue(function.apply(entry.getKey(), entry.getValue()));
+			}
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear()
+	{
+		if (entries.isEmpty())
+		{
+			return;
+		}
+		final List<Map.Entry<K, V>> removed = new ArrayList<>(entries.size());
+		for (final Map.Entry<K, V> entry : entries.entrySet())
+		{
+			removed.add(new SimpleImmutableEntry<>(entry));
+		}
+		entries.clear();
+		notifier.begin();
+		try
+		{
+			for (final Map.Entry<K, V> entry : removed)
+			{
+				notifier.record(
+					new MapChange<>(ChangeType.REMOVED, entry.getKey(), entry.getValue(), null));
+			}
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<Map.Entry<K, V>> entrySet()
+	{
+		if (entrySet == null)
+		{
+			entrySet = new EntrySet();
+		}
+		return entrySet;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<K> keySet()
+	{
+		if (keySet == null)
+		{
+			keySet = new KeySet();
+		}
+		return keySet;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Collection<V> values()
+	{
+		if (values == null)
+		{
+			values = new Values();
+		}
+		return values;
+	}
+
+	/**
+	 * Applies the given bulk operation of a view and notifies all its changes together
+	 *
+	 * @param operation
+	 *            the bulk operation that removes entries through the view
+	 * @return the result of the operation
+	 */
+	private boolean batch(final BooleanSupplier operation)
+	{
+		notifier.begin();
+		try
+		{
+			return operation.getAsBoolean();
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * The entry set view that records the removal of entries and the change of values
+	 */
+	private final class EntrySet extends AbstractSet<Map.Entry<K, V>>
+	{
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int size()
+		{
+			return entries.size();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Iterator<Map.Entry<K, V>> iterator()
+		{
+			return new ViewIterator<>(ObservableEntry::new);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void clear()
+		{
+			ObservableMap.this.clear();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean removeAll(final Collection<?> collection)
+		{
+			return batch(() -> super.removeAll(collection));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean retainAll(final Collection<?> collection)
+		{
+			return batch(() -> super.retainAll(collection));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean removeIf(final Predicate<? super Map.Entry<K, V>> filter)
+		{
+			return batch(() -> super.removeIf(filter));
+		}
+	}
+
+	/**
+	 * The key set view that records the removal of entries
+	 */
+	private final class KeySet extends AbstractSet<K>
+	{
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int size()
+		{
+			return entries.size();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean contains(final Object key)
+		{
+			return entries.containsKey(key);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean remove(final Object key)
+		{
+			if (!entries.containsKey(key))
+			{
+				return false;
+			}
+			ObservableMap.this.remove(key);
+			return true;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Iterator<K> iterator()
+		{
+			return new ViewIterator<>(Map.Entry::getKey);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void clear()
+		{
+			ObservableMap.this.clear();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean removeAll(final Collection<?> collection)
+		{
+			return batch(() -> super.removeAll(collection));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean retainAll(final Collection<?> collection)
+		{
+			return batch(() -> super.retainAll(collection));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean removeIf(final Predicate<? super K> filter)
+		{
+			return batch(() -> super.removeIf(filter));
+		}
+	}
+
+	/**
+	 * The values view that records the removal of entries
+	 */
+	private final class Values extends AbstractCollection<V>
+	{
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int size()
+		{
+			return entries.size();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean contains(final Object value)
+		{
+			return entries.containsValue(value);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Iterator<V> iterator()
+		{
+			return new ViewIterator<>(Map.Entry::getValue);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void clear()
+		{
+			ObservableMap.this.clear();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean removeAll(final Collection<?> collection)
+		{
+			return batch(() -> super.removeAll(collection));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean retainAll(final Collection<?> collection)
+		{
+			return batch(() -> super.retainAll(collection));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean removeIf(final Predicate<? super V> filter)
+		{
+			return batch(() -> super.removeIf(filter));
+		}
+	}
+
+	/**
+	 * The iterator of a view that records the removal of entries
+	 *
+	 * @param <E>
+	 *            the generic type of the elements of the view
+	 */
+	private final class ViewIterator<E> implements Iterator<E>
+	{
+
+		/** The iterator of the backing map */
+		private final Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+
+		/** The function that maps an entry of the backing map to an element of the view */
+		private final Function<Map.Entry<K, V>, E> element;
+
+		/** The entry that was returned last, null if it was removed or none was returned yet */
+		private Map.Entry<K, V> current;
+
+		/**
+		 * Instantiates a new {@link ViewIterator}
+		 *
+		 * @param element
+		 *            the function that maps an entry of the backing map to an element of the view
+		 */
+		ViewIterator(final Function<Map.Entry<K, V>, E> element)
+		{
+			this.element = element;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean hasNext()
+		{
+			return iterator.hasNext();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public E next()
+		{
+			current = iterator.next();
+			return element.apply(current);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void remove()
+		{
+			if (current == null)
+			{
+				throw new IllegalStateException("next() was not called before remove()");
+			}
+			final K key = current.getKey();
+			final V value = current.getValue();
+			iterator.remove();
+			current = null;
+			notifier.record(new MapChange<>(ChangeType.REMOVED, key, value, null));
+		}
+	}
+
+	/**
+	 * The entry that records the change of its value
+	 */
+	private final class ObservableEntry extends SimpleEntry<K, V>
+	{
+
+		/** The serialVersionUID for serialization compatibility */
+		private static final long serialVersionUID = 1L;
+
+		/** The entry of the backing map */
+		private final transient Map.Entry<K, V> entry;
+
+		/**
+		 * Instantiates a new {@link ObservableEntry}
+		 *
+		 * @param entry
+		 *            the entry of the backing map
+		 */
+		ObservableEntry(final Map.Entry<K, V> entry)
+		{
+			super(entry);
+			this.entry = entry;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public V setValue(final V value)
+		{
+			final V previous = entry.setValue(value);
+			super.setValue(value);
+			notifier.record(new MapChange<>(ChangeType.REPLACED, entry.getKey(), previous, value));
+			return previous;
+		}
+	}
+
+}
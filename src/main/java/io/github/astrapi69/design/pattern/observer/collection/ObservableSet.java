@@ -0,0 +1,337 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.collection;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import lombok.NonNull;
+
+/**
+ * The class {@link ObservableSet} is a set that notifies its {@link ChangeListener}s with a
+ * {@link SetChange} record for every added or removed element
+ *
+ * <p>
+ * All changes of one operation, for instance {@link #addAll(Collection)}, {@link #clear()} or
+ * {@link #removeIf(Predicate)}, are notified together Several operations can be combined into one
+ * notification with {@link #modify(Consumer)} Observers of the whole set still receive an
+ * unmodifiable view of the set after every notification The set keeps the insertion order
+ * </p>
+ *
+ * <p>
+ * Like the sets of {@code java.util}, this set is not thread safe and the listeners are notified on
+ * the thread that changes the set
+ * </p>
+ *
+ * @param <E>
+ *            the generic type of the elements
+ */
+public class ObservableSet<E> extends AbstractSet<E>
+{
+
+	/** The elements of this set */
+	private final Set<E> elements;
+
+	/** The notifier of the changes */
+	private final ChangeNotifier<SetChange<E>, Set<E>> notifier;
+
+	/**
+	 * Instantiates a new empty {@link ObservableSet}
+	 */
+	public ObservableSet()
+	{
+		this(Collections.emptySet());
+	}
+
+	/**
+	 * Instantiates a new {@link ObservableSet} with the given initial elements
+	 *
+	 * @param elements
+	 *            the initial elements
+	 */
+	public ObservableSet(final @NonNull Collection<? extends E> elements)
+	{
+		this.elements = new LinkedHashSet<>(elements);
+		this.notifier = new ChangeNotifier<>(Collections.unmodifiableSet(this), null);
+	}
+
+	/**
+	 * Adds the given change listener
+	 *
+	 * @param changeListener
+	 *            the change listener
+	 */
+	public void addChangeListener(final @NonNull ChangeListener<SetChange<E>> changeListener)
+	{
+		notifier.addChangeListener(changeListener);
+	}
+
+	/**
+	 * Removes the given change listener
+	 *
+	 * @param changeListener
+	 *            the change listener
+	 */
+	public void removeChangeListener(final ChangeListener<SetChange<E>> changeListener)
+	{
+		notifier.removeChangeListener(changeListener);
+	}
+
+	/**
+	 * Adds the given observer that receives an unmodifiable view of the whole set after every
+	 * notification
+	 *
+	 * @param observer
+	 *            the observer
+	 */
+	public void addObserver(final @NonNull Observer<Set<E>> observer)
+	{
+		notifier.addObserver(observer);
+	}
+
+	/**
+	 * Removes the given observer of the whole set
+	 *
+	 * @param observer
+	 *            the observer
+	 */
+	public void removeObserver(final Observer<Set<E>> observer)
+	{
+		notifier.removeObserver(observer);
+	}
+
+	/**
+	 * Applies the given operation to this set and notifies all its changes together
+	 *
+	 * @param operation
+	 *            the operation that changes this set
+	 */
+	public void modify(final @NonNull Consumer<? super Set<E>> operation)
+	{
+		notifier.begin();
+		try
+		{
+			operation.accept(this);
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size()
+	{
+		return elements.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(final Object element)
+	{
+		return elements.contains(element);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean add(final E element)
+	{
+		if (!elements.add(element))
+		{
+			return false;
+		}
+		notifier.record(new SetChange<>(ChangeType.ADDED, element));
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean remove(final Object element)
+	{
+		if (!elements.remove(element))
+		{
+			return false;
+		}
+		notifier.record(new SetChange<>(ChangeType.REMOVED, (E)element));
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<E> iterator()
+	{
+		final Iterator<E> iterator = elements.iterator();
+		return new Iterator<>()
+		{
+			/** The element that was returned last */
+			private E current;
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public boolean hasNext()
+			{
+				return iterator.hasNext();
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public E next()
+			{
+				current = iterator.next();
+				return current;
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void remove()
+			{
+				iterator.remove();
+				notifier.record(new SetChange<>(ChangeType.REMOVED, current));
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear()
+	{
+		if (elements.isEmpty())
+		{
+			return;
+		}
+		final List<E> removed = new ArrayList<>(elements);
+		elements.clear();
+		notifier.begin();
+		try
+		{
+			for (final E element : removed)
+			{
+				notifier.record(new SetChange<>(ChangeType.REMOVED, element));
+			}
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean addAll(final Collection<? extends E> collection)
+	{
+		notifier.begin();
+		try
+		{
+			return super.addAll(collection);
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean removeAll(final Collection<?> collection)
+	{
+		notifier.begin();
+		try
+		{
+			return super.removeAll(collection);
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean retainAll(final Collection<?> collection)
+	{
+		notifier.begin();
+		try
+		{
+			return super.retainAll(collection);
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean removeIf(final Predicate<? super E> filter)
+	{
+		notifier.begin();
+		try
+		{
+			return super.removeIf(filter);
+		}
+		finally
+		{
+			notifier.end();
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.collection;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The class {@link SetChange} records that an element was added to or removed from an
+ * {@link ObservableSet}
+ *
+ * @param <E>
+ *            the generic type of the elements
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class SetChange<E>
+{
+
+	/** The kind of this change, either {@link ChangeType#ADDED} or {@link ChangeType#REMOVED} */
+	private final ChangeType type;
+
+	/** The added or removed element */
+	private final E element;
+
+	/**
+	 * Instantiates a new {@link SetChange}
+	 *
+	 * @param type
+	 *            the kind of this change
+	 * @param element
+	 *            the added or removed element
+	 */
+	public SetChange(final @NonNull ChangeType type, final E element)
+	{
+		this.type = type;
+		this.element = element;
+	}
+
+}
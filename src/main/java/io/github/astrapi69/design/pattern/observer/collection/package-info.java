@@ -0,0 +1,30 @@
+/**
+ * Provides observable collections that notify their listeners with the changes of every operation
+ * instead of the whole collection
+ *
+ * <p>
+ * A listener of an observable collection does work in the number of changes and not in the size of
+ * the collection, while observers of the whole collection are still supported.
+ * </p>
+ *
+ * <p>
+ * The key classes in this package include:
+ * </p>
+ * <ul>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.collection.ObservableList} - A list that
+ * records the changed ranges</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.collection.ObservableSet} - A set that
+ * records the added and removed elements</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.collection.ObservableMap} - A map that
+ * records the added, removed and replaced entries</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.collection.ChangeListener} - Receives the
+ * change records of one operation together</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.collection.ListChange},
+ * {@link io.github.astrapi69.design.pattern.observer.collection.SetChange} and
+ * {@link io.github.astrapi69.design.pattern.observer.collection.MapChange} - The change records of
+ * the collections</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.collection.ChangeType} - The kinds of
+ * change</li>
+ * </ul>
+ */
+package io.github.astrapi69.design.pattern.observer.collection;
@@ -0,0 +1,275 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.dispatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link AsyncDispatcher} notifies listeners on an {@link Executor} instead of the
+ * calling thread Every listener is invoked in its own task, so a slow listener does not delay the
+ * others, and a failing listener does not prevent the notification of the remaining listeners
+ */
+public final class AsyncDispatcher
+{
+
+	/**
+	 * Private constructor to prevent instantiation of this utility class
+	 */
+	private AsyncDispatcher()
+	{
+	}
+
+	/**
+	 * Invokes the given invocation for each of the given listeners on the given executor
+	 *
+	 * <p>
+	 * The returned future completes when all listeners have been invoked If one or more listeners
+	 * failed, or the executor rejected a task, the future completes exceptionally with a
+	 * {@link DispatchException} that contains all failures
+	 * </p>
+	 *
+	 * @param <L>
+	 *            the generic type of the listener
+	 * @param listeners
+	 *            the listeners to notify
+	 * @param invocation
+	 *            the invocation that notifies one listener
+	 * @param executor
+	 *            the executor that runs the invocations
+	 * @return the future that completes when all listeners have been invoked
+	 */
+	public static <L> CompletableFuture<Void> dispatch(final @NonNull Collection<L> listeners,
+		final @NonNull Consumer<? super L> invocation, final @NonNull Executor executor)
+	{
+		return dispatch(listeners, invocation, executor, null);
+	}
+
+	/**
+	 * Invokes the given invocation for each of the given listeners on the given executor and lets
+	 * the given watchdog enforce the timeout of every invocation
+	 *
+	 * <p>
+	 * An invocation that exceeds its timeout adds a {@link java.util.concurrent.TimeoutException}
+	 * to the failures of the dispatch If the {@link TimeoutPolicy} of the watchdog is
+	 * {@link TimeoutPolicy#ABANDON}, the future completes without waiting for this invocation The
+	 * future is then completed by a task on the given executor and never on the thread of the
+	 * watchdog, so the dependent stages of the caller cannot stall the timeouts of other
+	 * invocations The executor therefore needs a thread that is not occupied by an abandoned
+	 * invocation
+	 * </p>
+	 *
+	 * @param <L>
+	 *            the generic type of the listener
+	 * @param listeners
+	 *            the listeners to notify
+	 * @param invocation
+	 *            the invocation that notifies one listener
+	 * @param executor
+	 *            the executor that runs the invocations
+	 * @param watchdog
+	 *            the watchdog that enforces the timeouts, null if the invocations are not timed out
+	 * @return the future that completes when all listeners have been invoked
+	 */
+	public static <L> CompletableFuture<Void> dispatch(final @NonNull Collection<L> listeners,
+		final @NonNull Consumer<? super L> invocation, final @NonNull Executor executor,
+		final Watchdog watchdog)
+	{
+		final CompletableFuture<Void> completion = new CompletableFuture<>();
+		if (listeners.isEmpty())
+		{
+			completion.complete(null);
+			return completion;
+		}
+		final AtomicInteger pending = new AtomicInteger(listeners.size());
+		final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		for (final L listener : listeners)
+		{
+			final Runnable task = watchdog == null
+				? () -> invoke(listener, invocation, pending, failures, completion)
+				: () -> invokeWatched(listener, invocation, executor, watchdog, pending, failures,
+					completion);
+			try
+			{
+				executor.execute(task);
+			}
+			catch (final RejectedExecutionException exception)
+			{
+				failures.add(exception);
+				countDown(pending, failures, completion);
+			}
+		}
+		return completion;
+	}
+
+	/**
+	 * Invokes the given invocation for the given listener and counts down the pending invocations
+	 *
+	 * @param <L>
+	 *            the generic type of the listener
+	 * @param listener
+	 *            the listener to notify
+	 * @param invocation
+	 *            the invocation that notifies the listener
+	 * @param pending
+	 *            the number of pending invocations
+	 * @param failures
+	 *            the failures that occurred so far
+	 * @param completion
+	 *            the future to complete
+	 */
+	private static <L> void invoke(final L listener, final Consumer<? super L> invocation,
+		final AtomicInteger pending, final Queue<Throwable> failures,
+		final CompletableFuture<Void> completion)
+	{
+		try
+		{
+			invocation.accept(listener);
+		}
+		catch (final Throwable throwable)
+		{
+			failures.add(throwable);
+		}
+		finally
+		{
+			countDown(pending, failures, completion);
+		}
+	}
+
+	/**
+	 * Invokes the given invocation for the given listener under the watch of the given watchdog
+	 * and counts down the pending invocations, unless the watchdog abandoned the invocation and
+	 * counted down already on the given executor
+	 *
+	 * @param <L>
+	 *            the generic type of the listener
+	 * @param listener
+	 *            the listener to notify
+	 * @param invocation
+	 *            the invocation that notifies the listener
+	 * @param executor
+	 *            the executor that counts down an abandoned invocation
+	 * @param watchdog
+	 *            the watchdog that enforces the timeout
+	 * @param pending
+	 *            the number of pending invocations
+	 * @param failures
+	 *            the failures that occurred so far
+	 * @param completion
+	 *            the future to complete
+	 */
+	private static <L> void invokeWatched(final L listener, final Consumer<? super L> invocation,
+		final Executor executor, final Watchdog watchdog, final AtomicInteger pending,
+		final Queue<Throwable> failures, final CompletableFuture<Void> completion)
+	{
+		final Watchdog.Watch watch = watchdog.watch(listener, executor, timeout -> {
+			failures.add(timeout);
+			if (watchdog.getTimeoutPolicy() == TimeoutPolicy.ABANDON)
+			{
+				countDownAsync(executor, pending, failures, completion);
+			}
+		});
+		Throwable failure = null;
+		try
+		{
+			invocation.accept(listener);
+		}
+		catch (final Throwable throwable)
+		{
+			failure = throwable;
+		}
+		if (watch.finish())
+		{
+			if (failure != null)
+			{
+				failures.add(failure);
+			}
+			countDown(pending, failures, completion);
+		}
+	}
+
+	/**
+	 * Counts down the pending invocations in a task on the given executor, or on the calling thread
+	 * if the executor rejects the task
+	 *
+	 * @param executor
+	 *            the executor that runs the count down
+	 * @param pending
+	 *            the number of pending invocations
+	 * @param failures
+	 *            the failures that occurred so far
+	 * @param completion
+	 *            the future to complete
+	 */
+	private static void countDownAsync(final Executor executor, final AtomicInteger pending,
+		final Queue<Throwable> failures, final CompletableFuture<Void> completion)
+	{
+		try
+		{
+			executor.execute(() -> countDown(pending, failures, completion));
+		}
+		catch (final RejectedExecutionException exception)
+		{
+			countDown(pending, failures, completion);
+		}
+	}
+
+	/**
+	 * Counts down the pending invocations and completes the given future after the last one
+	 *
+	 * @param pending
+	 *            the number of pending invocations
+	 * @param failures
+	 *            the failures that occurred so far
+	 * @param completion
+	 *            the future to complete
+	 */
+	private static void countDown(final AtomicInteger pending, final Queue<Throwable> failures,
+		final CompletableFuture<Void> completion)
+	{
+		if (pending.decrementAndGet() != 0)
+		{
+			return;
+		}
+		if (failures.isEmpty())
+		{
+			completion.complete(null);
+		}
+		else
+		{
+			completion.completeExceptionally(new DispatchException(new ArrayList<>(failures)));
+		}
+	}
+
+}
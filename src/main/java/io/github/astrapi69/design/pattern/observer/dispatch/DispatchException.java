@@ -0,0 +1,63 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.dispatch;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link DispatchException} collects the failures of the listeners that were notified in
+ * one dispatch The first failure is the cause of this exception and all further failures are added
+ * as suppressed exceptions
+ */
+@Getter
+public class DispatchException extends RuntimeException
+{
+
+	/** The serialVersionUID for serialization compatibility */
+	private static final long serialVersionUID = 1L;
+
+	/** The failures of the notified listeners in the order they occurred */
+	private final List<Throwable> failures;
+
+	/**
+	 * Instantiates a new {@link DispatchException} from the given failures
+	 *
+	 * @param failures
+	 *            the failures of the notified listeners, must not be empty
+	 */
+	public DispatchException(final @NonNull List<Throwable> failures)
+	{
+		super(failures.size() + " of the notified listeners failed", failures.get(0));
+		this.failures = List.copyOf(failures);
+		for (int i = 1; i < this.failures.size(); i++)
+		{
+			addSuppressed(this.failures.get(i));
+		}
+	}
+
+}
@@ -0,0 +1,532 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.dispatch;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import io.github.astrapi69.design.pattern.observer.exception.ExceptionEvent;
+import io.github.astrapi69.design.pattern.observer.exception.ExceptionObservers;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link DispatchGuard} isolates the observers of one dispatch from each other A failing
+ * observer does not abort the dispatch, its failure is passed to a failure handler that fires it to
+ * the {@link ExceptionObservers} by default
+ *
+ * <p>
+ * The guard keeps a circuit breaker for every observer and measures the time of every
+ * notification A notification that fails or exceeds the latency budget counts as failure, and an
+ * observer that fails the given number of times in a row is skipped until the open time elapsed
+ * Then one notification probes the observer, if it succeeds the observer is notified normally
+ * again, otherwise it is skipped for another open time
+ * </p>
+ *
+ * <p>
+ * The circuit breakers are aligned with the immutable snapshot of the observers and realigned only
+ * if the snapshot changes The circuit breaker of an observer is kept in a map that references the
+ * observer only weakly, so its state survives the change between snapshots and the guard never
+ * keeps an observer alive The snapshot itself is only weakly referenced as well
+ * </p>
+ */
+public class DispatchGuard
+{
+
+	/** The number of failures in a row that opens the circuit of an observer */
+	@Getter
+	private final int failureThreshold;
+
+	/** The maximum time of a notification in nanoseconds before it counts as failure */
+	private final long latencyBudgetNanos;
+
+	/** The time in nanoseconds that an open circuit skips the observer */
+	private final long openNanos;
+
+	/** The handler that receives the failures of the observers */
+	private final Consumer<? super Throwable> failureHandler;
+
+	/** The lock that guards the circuit breakers by observer and the rebuild of the breakers */
+	private final Object breakersLock = new Object();
+
+	/** The circuit breakers by their weakly referenced observer, guarded by the breakers lock */
+	private final Map<ObserverKey, CircuitBreaker> breakersByObserver = new HashMap<>();
+
+	/** The queue of the cleared observer keys, guarded by the breakers lock */
+	private final ReferenceQueue<Object> staleKeys = new ReferenceQueue<>();
+
+	/** The number of notifications that failed */
+	private final AtomicLong failureCount = new AtomicLong();
+
+	/** The number of notifications that exceeded the latency budget */
+	private final AtomicLong slowCount = new AtomicLong();
+
+	/** The number of notifications that were skipped because the circuit was open */
+	private final AtomicLong skippedCount = new AtomicLong();
+
+	/** The circuit breakers of the observers of the current snapshot */
+	private volatile Breakers breakers = new Breakers(List.of(), new CircuitBreaker[0]);
+
+	/**
+	 * Instantiates a new {@link DispatchGuard} that fires the failures to the
+	 * {@link ExceptionObservers}
+	 *
+	 * @param failureThreshold
+	 *            the number of failures in a row that opens the circuit of an observer
+	 * @param latencyBudget
+	 *            the maximum time of a notification before it counts as failure
+	 * @param openDuration
+	 *            the time that an open circuit skips the observer
+	 */
+	public DispatchGuard(final int failureThreshold, final @NonNull Duration latencyBudget,
+		final @NonNull Duration openDuration)
+	{
+		this(failureThreshold, latencyBudget, openDuration, throwable -> ExceptionObservers
+			.getInstance().fireExceptionEvent(new ExceptionEvent(throwable)));
+	}
+
+	/**
+	 * Instantiates a new {@link DispatchGuard}
+	 *
+	 * @param failureThreshold
+	 *            the number of failures in a row that opens the circuit of an observer
+	 * @param latencyBudget
+	 *            the maximum time of a notification before it counts as failure
+	 * @param openDuration
+	 *            the time that an open circuit skips the observer
+	 * @param failureHandler
+	 *            the handler that receives the failures of the observers
+	 */
+	public DispatchGuard(final int failureThreshold, final @NonNull Duration latencyBudget,
+		final @NonNull Duration openDuration,
+		final @NonNull Consumer<? super Throwable> failureHandler)
+	{
+		if (failureThreshold < 1)
+		{
+			throw new IllegalArgumentException(
+				"failureThreshold must be positive but was " + failureThreshold);
+		}
+		if (latencyBudget.isNegative() || latencyBudget.isZero() || openDuration.isNegative())
+		{
+			throw new IllegalArgumentException("latencyBudget must be positive and openDuration"
+				+ " must not be negative but were " + latencyBudget + " and " + openDuration);
+		}
+		this.failureThreshold = failureThreshold;
+		this.latencyBudgetNanos = latencyBudget.toNanos();
+		this.openNanos = openDuration.toNanos();
+		this.failureHandler = failureHandler;
+	}
+
+	/**
+	 * Gets the maximum time of a notification before it counts as failure
+	 *
+	 * @return the latency budget
+	 */
+	public Duration getLatencyBudget()
+	{
+		return Duration.ofNanos(latencyBudgetNanos);
+	}
+
+	/**
+	 * Gets the time that an open circuit skips the observer
+	 *
+	 * @return the open duration
+	 */
+	public Duration getOpenDuration()
+	{
+		return Duration.ofNanos(openNanos);
+	}
+
+	/**
+	 * Invokes the given action for every given observer whose circuit is not open Failures are
+	 * passed to the failure handler and do not abort the dispatch
+	 *
+	 * @param <O>
+	 *            the generic type of the observer
+	 * @param <V>
+	 *            the generic type of the value
+	 * @param observers
+	 *            the immutable snapshot of the observers to notify
+	 * @param action
+	 *            the action that notifies an observer with the value
+	 * @param value
+	 *            the value to pass to the observers
+	 */
+	public <O, V> void dispatch(final @NonNull List<O> observers,
+		final @NonNull BiConsumer<? super O, ? super V> action, final V value)
+	{
+		dispatch(observers, action, value, null);
+	}
+
+	/**
+	 * Invokes the given action for every given observer whose circuit is not open and passes the
+	 * time of every invoked notification, failed or not, to the given consumer Failures are passed
+	 * to the failure handler and do not abort the dispatch
+	 *
+	 * @param <O>
+	 *            the generic type of the observer
+	 * @param <V>
+	 *            the generic type of the value
+	 * @param observers
+	 *            the immutable snapshot of the observers to notify
+	 * @param action
+	 *            the action that notifies an observer with the value
+	 * @param value
+	 *            the value to pass to the observers
+	 * @param invocationTimes
+	 *            the consumer of the time of every notification in nanoseconds, null if the times
+	 *            are not needed
+	 */
+	public <O, V> void dispatch(final @NonNull List<O> observers,
+		final @NonNull BiConsumer<? super O, ? super V> action, final V value,
+		final LongConsumer invocationTimes)
+	{
+		final CircuitBreaker[] current = breakersOf(observers);
+		final int size = observers.size();
+		for (int i = 0; i < size; i++)
+		{
+			final CircuitBreaker breaker = current[i];
+			final long start = System.nanoTime();
+			if (!breaker.allow(start))
+			{
+				skippedCount.incrementAndGet();
+				continue;
+			}
+			try
+			{
+				action.accept(observers.get(i), value);
+			}
+			catch (final RuntimeException exception)
+			{
+				final long end = System.nanoTime();
+				if (invocationTimes != null)
+				{
+					invocationTimes.accept(end - start);
+				}
+				failureCount.incrementAndGet();
+				breaker.onFailure(end);
+				failureHandler.accept(exception);
+				continue;
+			}
+			final long end = System.nanoTime();
+			if (invocationTimes != null)
+			{
+				invocationTimes.accept(end - start);
+			}
+			if (end - start > latencyBudgetNanos)
+			{
+				slowCount.incrementAndGet();
+				breaker.onFailure(end);
+			}
+			else
+			{
+				breaker.onSuccess();
+			}
+		}
+	}
+
+	/**
+	 * Gets the circuit state of the given observer
+	 *
+	 * @param observer
+	 *            the observer
+	 * @return the circuit state of the observer, {@link CircuitState#CLOSED} if the observer was
+	 *         not yet notified
+	 */
+	public CircuitState getCircuitState(final Object observer)
+	{
+		if (observer == null)
+		{
+			return CircuitState.CLOSED;
+		}
+		final CircuitBreaker breaker;
+		synchronized (breakersLock)
+		{
+			breaker = breakersByObserver.get(new ObserverKey(observer, null));
+		}
+		return breaker != null ? breaker.state : CircuitState.CLOSED;
+	}
+
+	/**
+	 * Gets the number of notifications that failed
+	 *
+	 * @return the number of failed notifications
+	 */
+	public long getFailureCount()
+	{
+		return failureCount.get();
+	}
+
+	/**
+	 * Gets the number of notifications that exceeded the latency budget
+	 *
+	 * @return the number of slow notifications
+	 */
+	public long getSlowCount()
+	{
+		return slowCount.get();
+	}
+
+	/**
+	 * Gets the number of notifications that were skipped because the circuit was open
+	 *
+	 * @return the number of skipped notifications
+	 */
+	public long getSkippedCount()
+	{
+		return skippedCount.get();
+	}
+
+	/**
+	 * Gets the circuit breakers for the given snapshot of observers The circuit breakers are
+	 * realigned only if the snapshot has changed, every observer keeps its circuit breaker with its
+	 * state as long as it is alive
+	 *
+	 * @param observers
+	 *            the current snapshot of the observers
+	 * @return the circuit breakers of the given observers in the same order
+	 */
+	private CircuitBreaker[] breakersOf(final List<?> observers)
+	{
+		Breakers current = breakers;
+		if (current.snapshot.get() == observers)
+		{
+			return current.breakers;
+		}
+		synchronized (breakersLock)
+		{
+			current = breakers;
+			if (current.snapshot.get() == observers)
+			{
+				return current.breakers;
+			}
+			expungeStaleKeys();
+			final CircuitBreaker[] rebuilt = new CircuitBreaker[observers.size()];
+			for (int i = 0; i < rebuilt.length; i++)
+			{
+				rebuilt[i] = breakerOf(observers.get(i));
+			}
+			current = new Breakers(observers, rebuilt);
+			breakers = current;
+			return current.breakers;
+		}
+	}
+
+	/**
+	 * Gets the circuit breaker of the given observer and creates it if the observer has none yet,
+	 * must be called under the breakers lock
+	 *
+	 * @param observer
+	 *            the observer
+	 * @return the circuit breaker of the observer
+	 */
+	private CircuitBreaker breakerOf(final Object observer)
+	{
+		CircuitBreaker breaker = breakersByObserver.get(new ObserverKey(observer, null));
+		if (breaker == null)
+		{
+			breaker = new CircuitBreaker();
+			breakersByObserver.put(new ObserverKey(observer, staleKeys), breaker);
+		}
+		return breaker;
+	}
+
+	/**
+	 * Removes the circuit breakers of the observers that were garbage collected, must be called
+	 * under the breakers lock
+	 */
+	private void expungeStaleKeys()
+	{
+		for (Reference<?> stale = staleKeys.poll(); stale != null; stale = staleKeys.poll())
+		{
+			breakersByObserver.remove(stale);
+		}
+	}
+
+	/**
+	 * Holds the circuit breakers that belong to one snapshot of the observers
+	 */
+	private static final class Breakers
+	{
+
+		/** The weakly referenced snapshot of the observers */
+		final WeakReference<List<?>> snapshot;
+
+		/** The circuit breakers of the observers in the same order */
+		final CircuitBreaker[] breakers;
+
+		/**
+		 * Instantiates a new {@link Breakers} object
+		 *
+		 * @param observers
+		 *            the snapshot of the observers
+		 * @param breakers
+		 *            the circuit breakers of the observers
+		 */
+		Breakers(final List<?> observers, final CircuitBreaker[] breakers)
+		{
+			this.snapshot = new WeakReference<>(observers);
+			this.breakers = breakers;
+		}
+	}
+
+	/**
+	 * A weak reference to an observer that identifies the observer by identity and keeps its hash
+	 * code after the observer was garbage collected, so the cleared key can still be removed
+	 */
+	private static final class ObserverKey extends WeakReference<Object>
+	{
+
+		/** The identity hash code of the observer */
+		private final int hash;
+
+		/**
+		 * Instantiates a new {@link ObserverKey}
+		 *
+		 * @param observer
+		 *            the observer
+		 * @param queue
+		 *            the queue that receives the key after the observer was garbage collected, null
+		 *            for a key that is only used for a lookup
+		 */
+		ObserverKey(final Object observer, final ReferenceQueue<Object> queue)
+		{
+			super(observer, queue);
+			this.hash = System.identityHashCode(observer);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(final Object object)
+		{
+			if (this == object)
+			{
+				return true;
+			}
+			if (!(object instanceof ObserverKey))
+			{
+				return false;
+			}
+			final Object observer = get();
+			return observer != null && observer == ((ObserverKey)object).get();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+	}
+
+	/**
+	 * The circuit breaker of one observer The closed state is read without locking, all state
+	 * transitions happen under the monitor of the circuit breaker
+	 */
+	private final class CircuitBreaker
+	{
+
+		/** The current state */
+		volatile CircuitState state = CircuitState.CLOSED;
+
+		/** The number of failures in a row, guarded by the monitor */
+		int failures;
+
+		/** The time in nanoseconds when the circuit was opened, guarded by the monitor */
+		long openedAt;
+
+		/**
+		 * Decides if the observer may be notified now, an open circuit whose open time elapsed lets
+		 * exactly one probe pass
+		 *
+		 * @param now
+		 *            the current time in nanoseconds
+		 * @return true if the observer may be notified
+		 */
+		boolean allow(final long now)
+		{
+			if (state == CircuitState.CLOSED)
+			{
+				return true;
+			}
+			synchronized (this)
+			{
+				if (state == CircuitState.OPEN && now - openedAt >= openNanos)
+				{
+					state = CircuitState.HALF_OPEN;
+					return true;
+				}
+				return state == CircuitState.CLOSED;
+			}
+		}
+
+		/**
+		 * Records a successful notification and closes the circuit
+		 */
+		void onSuccess()
+		{
+			if (state == CircuitState.CLOSED && failures == 0)
+			{
+				return;
+			}
+			synchronized (this)
+			{
+				failures = 0;
+				state = CircuitState.CLOSED;
+			}
+		}
+
+		/**
+		 * Records a failed or slow notification and opens the circuit if a probe failed or the
+		 * failure threshold is reached
+		 *
+		 * @param now
+		 *            the current time in nanoseconds
+		 */
+		synchronized void onFailure(final long now)
+		{
+			failures++;
+			if (state == CircuitState.HALF_OPEN || failures >= failureThreshold)
+			{
+				state = CircuitState.OPEN;
+				openedAt = now;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,364 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.dispatch;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import io.github.astrapi69.design.pattern.observer.chat.listener.MessageListener;
+import io.github.astrapi69.design.pattern.observer.event.EventListener;
+import io.github.astrapi69.design.pattern.observer.metrics.DispatchMetrics;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * The class {@link Mailbox} decouples a consumer from the subject it is registered with over a
+ * bounded ring buffer
+ *
+ * <p>
+ * A mailbox implements {@link Observer}, {@link EventListener} and {@link MessageListener}, so it
+ * can be registered with any subject, event source or message source in place of the consumer
+ * Every received value is queued and delivered to the consumer on the given executor, one value at
+ * a time and in the order they were received When the buffer is full, the {@link OverflowPolicy}
+ * decides if the producer is blocked, a value is dropped or the new value is rejected
+ * </p>
+ *
+ * @param <T>
+ *            the generic type of the delivered values
+ */
+public class Mailbox<T> implements Observer<T>, EventListener<T>, MessageListener<T>
+{
+
+	/** The consumer that receives the queued values */
+	private final Consumer<? super T> consumer;
+
+	/** The policy that applies when the buffer is full */
+	@Getter
+	private final OverflowPolicy overflowPolicy;
+
+	/** The executor that delivers the queued values to the consumer */
+	@Getter
+	private final Executor executor;
+
+	/** The ring buffer of queued values, guarded by the lock */
+	private final Object[] buffer;
+
+	/** The lock that guards the ring buffer */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/** The condition that signals producers that wait for room in the buffer */
+	private final Condition notFull = lock.newCondition();
+
+	/** Flag that indicates if a delivery task is scheduled or running */
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	/** The number of values that were dropped because the buffer was full */
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	/** The number of values that were delivered to the consumer */
+	private final AtomicLong deliveredCount = new AtomicLong();
+
+	/** The task that delivers the queued values */
+	private final Runnable delivery = this::deliver;
+
+	/** The index of the oldest queued value, guarded by the lock */
+	private int head;
+
+	/** The number of queued values, guarded by the lock */
+	private volatile int queueDepth;
+
+	/**
+	 * The metrics that record the queue depth and the delivery time of every value, null if
+	 * nothing is recorded
+	 */
+	@Getter
+	@Setter
+	private volatile DispatchMetrics metrics;
+
+	/**
+	 * Instantiates a new {@link Mailbox} that delivers on the common fork join pool
+	 *
+	 * @param consumer
+	 *            the consumer that receives the queued values
+	 * @param capacity
+	 *            the maximum number of queued values
+	 * @param overflowPolicy
+	 *            the policy that applies when the buffer is full
+	 */
+	public Mailbox(final @NonNull Consumer<? super T> consumer, final int capacity,
+		final @NonNull OverflowPolicy overflowPolicy)
+	{
+		this(consumer, capacity, overflowPolicy, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Instantiates a new {@link Mailbox}
+	 *
+	 * @param consumer
+	 *            the consumer that receives the queued values
+	 * @param capacity
+	 *            the maximum number of queued values
+	 * @param overflowPolicy
+	 *            the policy that applies when the buffer is full
+	 * @param executor
+	 *            the executor that delivers the queued values to the consumer
+	 */
+	public Mailbox(final @NonNull Consumer<? super T> consumer, final int capacity,
+		final @NonNull OverflowPolicy overflowPolicy, final @NonNull Executor executor)
+	{
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException("capacity must be positive but was " + capacity);
+		}
+		this.consumer = consumer;
+		this.buffer = new Object[capacity];
+		this.overflowPolicy = overflowPolicy;
+		this.executor = executor;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void update(final T observable)
+	{
+		offer(observable);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onEvent(final T event)
+	{
+		offer(event);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onMessage(final T event)
+	{
+		offer(event);
+	}
+
+	/**
+	 * Queues the given value for the delivery to the consumer and applies the overflow policy if
+	 * the buffer is full If the producer is interrupted while it waits for room in the buffer, the
+	 * value is dropped and the interrupt flag is restored
+	 *
+	 * @param value
+	 *            the value to queue
+	 * @return true if the value was queued, false if it was dropped
+	 * @throws IllegalStateException
+	 *             if the buffer is full and the policy is {@link OverflowPolicy#FAIL_FAST}
+	 */
+	public boolean offer(final T value)
+	{
+		lock.lock();
+		try
+		{
+			if (queueDepth == buffer.length)
+			{
+				switch (overflowPolicy)
+				{
+					case BLOCK :
+						while (queueDepth == buffer.length)
+						{
+							try
+							{
+								notFull.await();
+							}
+							catch (final InterruptedException exception)
+							{
+								Thread.currentThread().interrupt();
+								droppedCount.incrementAndGet();
+								return false;
+							}
+						}
+						break;
+					case DROP_NEWEST :
+						droppedCount.incrementAndGet();
+						return false;
+					case DROP_OLDEST :
+						buffer[head] = null;
+						head = (head + 1) % buffer.length;
+						queueDepth--;
+						droppedCount.incrementAndGet();
+						break;
+					default :
+						throw new IllegalStateException(
+							"mailbox is full with " + buffer.length + " queued values");
+				}
+			}
+			buffer[(head + queueDepth) % buffer.length] = value;
+			queueDepth++;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+		final DispatchMetrics metrics = this.metrics;
+		if (metrics != null)
+		{
+			metrics.recordQueueDepth(queueDepth);
+		}
+		schedule();
+		return true;
+	}
+
+	/**
+	 * Gets the maximum number of queued values
+	 *
+	 * @return the capacity of this mailbox
+	 */
+	public int getCapacity()
+	{
+		return buffer.length;
+	}
+
+	/**
+	 * Gets the number of values that are queued and not yet delivered
+	 *
+	 * @return the current queue depth
+	 */
+	public int getQueueDepth()
+	{
+		return queueDepth;
+	}
+
+	/**
+	 * Gets the number of values that were dropped because the buffer was full
+	 *
+	 * @return the number of dropped values
+	 */
+	public long getDroppedCount()
+	{
+		return droppedCount.get();
+	}
+
+	/**
+	 * Gets the number of values that were delivered to the consumer
+	 *
+	 * @return the number of delivered values
+	 */
+	public long getDeliveredCount()
+	{
+		return deliveredCount.get();
+	}
+
+	/**
+	 * Schedules the delivery task on the executor if none is scheduled
+	 */
+	private void schedule()
+	{
+		if (scheduled.compareAndSet(false, true))
+		{
+			try
+			{
+				executor.execute(delivery);
+			}
+			catch (final RejectedExecutionException exception)
+			{
+				scheduled.set(false);
+				throw exception;
+			}
+		}
+	}
+
+	/**
+	 * Removes the oldest queued value
+	 *
+	 * @return the oldest queued value
+	 */
+	@SuppressWarnings("unchecked")
+	private T poll()
+	{
+		final T value = (T)buffer[head];
+		buffer[head] = null;
+		head = (head + 1) % buffer.length;
+		queueDepth--;
+		notFull.signal();
+		return value;
+	}
+
+	/**
+	 * Delivers at most one buffer length of queued values to the consumer and reschedules itself
+	 * if values are left, so one busy mailbox does not occupy a worker of a shared executor
+	 */
+	private void deliver()
+	{
+		try
+		{
+			for (int delivered = 0; delivered < buffer.length; delivered++)
+			{
+				final T value;
+				lock.lock();
+				try
+				{
+					if (queueDepth == 0)
+					{
+						return;
+					}
+					value = poll();
+				}
+				finally
+				{
+					lock.unlock();
+				}
+				final DispatchMetrics metrics = this.metrics;
+				if (metrics == null)
+				{
+					consumer.accept(value);
+				}
+				else
+				{
+					final long start = System.nanoTime();
+					consumer.accept(value);
+					metrics.recordInvocation(System.nanoTime() - start);
+				}
+				deliveredCount.incrementAndGet();
+			}
+		}
+		finally
+		{
+			scheduled.set(false);
+			if (queueDepth != 0)
+			{
+				schedule();
+			}
+		}
+	}
+
+}
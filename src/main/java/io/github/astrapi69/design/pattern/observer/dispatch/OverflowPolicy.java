@@ -0,0 +1,54 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.dispatch;
+
+/**
+ * The enum {@link OverflowPolicy} decides what a {@link Mailbox} does with a new value when it has
+ * reached its capacity
+ */
+public enum OverflowPolicy
+{
+
+	/**
+	 * The producer is blocked until the mailbox has room for the new value
+	 */
+	BLOCK,
+
+	/**
+	 * The new value is dropped and the queued values are kept
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * The oldest queued value is dropped to make room for the new value
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * The new value is rejected with an {@link IllegalStateException}
+	 */
+	FAIL_FAST
+
+}
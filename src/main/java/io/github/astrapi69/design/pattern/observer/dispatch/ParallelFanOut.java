@@ -0,0 +1,271 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import io.github.astrapi69.design.pattern.observer.exception.ExceptionEvent;
+import io.github.astrapi69.design.pattern.observer.exception.ExceptionObservers;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link ParallelFanOut} notifies a large list of listeners in parallel on a
+ * {@link ForkJoinPool} The list is split recursively into ranges that are processed by work
+ * stealing tasks, so the latency of a broadcast scales with the number of cores instead of with the
+ * number of listeners
+ *
+ * <p>
+ * Lists with fewer listeners than the threshold should be notified sequentially, because for them
+ * the cost of forking is higher than the gain A failing listener does not prevent the notification
+ * of the remaining listeners of its range If the fan out awaits the completion, the caller returns
+ * after every listener has been notified and all failures are collected in a
+ * {@link DispatchException} that is thrown, otherwise the caller returns right after the tasks are
+ * submitted and every failure is fired to the {@link ExceptionObservers}
+ * </p>
+ *
+ * <p>
+ * If a subject holds its monitor while it awaits a parallel fan out, listeners must not call
+ * synchronized methods of that subject, because the worker threads would block on the monitor
+ * that the waiting caller holds
+ * </p>
+ */
+public class ParallelFanOut
+{
+
+	/** The number of leaf tasks per worker thread of the pool */
+	private static final int LEAVES_PER_WORKER = 4;
+
+	/** The pool that runs the tasks */
+	@Getter
+	private final ForkJoinPool pool;
+
+	/** The minimum number of listeners for a parallel notification */
+	@Getter
+	private final int threshold;
+
+	/** Flag that indicates if the caller waits until all listeners have been notified */
+	@Getter
+	private final boolean awaitCompletion;
+
+	/**
+	 * Instantiates a new {@link ParallelFanOut} on the common pool that awaits the completion
+	 *
+	 * @param threshold
+	 *            the minimum number of listeners for a parallel notification
+	 */
+	public ParallelFanOut(final int threshold)
+	{
+		this(ForkJoinPool.commonPool(), threshold, true);
+	}
+
+	/**
+	 * Instantiates a new {@link ParallelFanOut}
+	 *
+	 * @param pool
+	 *            the pool that runs the tasks
+	 * @param threshold
+	 *            the minimum number of listeners for a parallel notification
+	 * @param awaitCompletion
+	 *            true if the caller waits until all listeners have been notified, false to return
+	 *            right after the tasks are submitted
+	 */
+	public ParallelFanOut(final @NonNull ForkJoinPool pool, final int threshold,
+		final boolean awaitCompletion)
+	{
+		if (threshold < 1)
+		{
+			throw new IllegalArgumentException("threshold must be positive but was " + threshold);
+		}
+		this.pool = pool;
+		this.threshold = threshold;
+		this.awaitCompletion = awaitCompletion;
+	}
+
+	/**
+	 * Checks if the given number of listeners should be notified in parallel
+	 *
+	 * @param listenerCount
+	 *            the number of listeners
+	 * @return true if the number of listeners reaches the threshold
+	 */
+	public boolean appliesTo(final int listenerCount)
+	{
+		return listenerCount >= threshold;
+	}
+
+	/**
+	 * Invokes the given action for every listener with the given value in parallel
+	 *
+	 * @param <L>
+	 *            the generic type of the listener
+	 * @param <V>
+	 *            the generic type of the value
+	 * @param listeners
+	 *            the immutable list of listeners to notify
+	 * @param action
+	 *            the action that notifies a listener with the value
+	 * @param value
+	 *            the value to pass to the listeners
+	 * @throws DispatchException
+	 *             if the fan out awaits the completion and one or more listeners failed
+	 */
+	public <L, V> void dispatch(final @NonNull List<L> listeners,
+		final @NonNull BiConsumer<? super L, ? super V> action, final V value)
+	{
+		final int size = listeners.size();
+		final int leafSize = Math.max(1, size / (pool.getParallelism() * LEAVES_PER_WORKER));
+		if (awaitCompletion)
+		{
+			final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+			pool.invoke(
+				new FanOutTask<>(listeners, action, value, 0, size, leafSize, failures::add));
+			if (!failures.isEmpty())
+			{
+				throw new DispatchException(new ArrayList<>(failures));
+			}
+		}
+		else
+		{
+			pool.execute(new FanOutTask<>(listeners, action, value, 0, size, leafSize,
+				ParallelFanOut::fireFailure));
+		}
+	}
+
+	/**
+	 * Fires the given failure of a listener to the {@link ExceptionObservers}
+	 *
+	 * @param failure
+	 *            the failure of the listener
+	 */
+	private static void fireFailure(final Throwable failure)
+	{
+		ExceptionObservers.getInstance().fireExceptionEvent(new ExceptionEvent(failure));
+	}
+
+	/**
+	 * The task that notifies one range of the listeners and splits it while it is larger than the
+	 * leaf size
+	 *
+	 * @param <L>
+	 *            the generic type of the listener
+	 * @param <V>
+	 *            the generic type of the value
+	 */
+	private static final class FanOutTask<L, V> extends RecursiveAction
+	{
+
+		/** The serialVersionUID for serialization compatibility */
+		private static final long serialVersionUID = 1L;
+
+		/** The listeners to notify */
+		private final transient List<L> listeners;
+
+		/** The action that notifies a listener with the value */
+		private final transient BiConsumer<? super L, ? super V> action;
+
+		/** The value to pass to the listeners */
+		private final transient V value;
+
+		/** The index of the first listener of the range */
+		private final int start;
+
+		/** The index after the last listener of the range */
+		private final int end;
+
+		/** The maximum number of listeners that one task notifies without splitting */
+		private final int leafSize;
+
+		/** The handler that receives the failures of the listeners */
+		private final transient Consumer<Throwable> failureHandler;
+
+		/**
+		 * Instantiates a new {@link FanOutTask} for the given range
+		 *
+		 * @param listeners
+		 *            the listeners to notify
+		 * @param action
+		 *            the action that notifies a listener with the value
+		 * @param value
+		 *            the value to pass to the listeners
+		 * @param start
+		 *            the index of the first listener of the range
+		 * @param end
+		 *            the index after the last listener of the range
+		 * @param leafSize
+		 *            the maximum number of listeners that one task notifies without splitting
+		 * @param failureHandler
+		 *            the handler that receives the failures of the listeners
+		 */
+		FanOutTask(final List<L> listeners, final BiConsumer<? super L, ? super V> action,
+			final V value, final int start, final int end, final int leafSize,
+			final Consumer<Throwable> failureHandler)
+		{
+			this.listeners = listeners;
+			this.action = action;
+			this.value = value;
+			this.start = start;
+			this.end = end;
+			this.leafSize = leafSize;
+			this.failureHandler = failureHandler;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void compute()
+		{
+			if (end - start <= leafSize)
+			{
+				for (int i = start; i < end; i++)
+				{
+					try
+					{
+						action.accept(listeners.get(i), value);
+					}
+					catch (final RuntimeException exception)
+					{
+						failureHandler.accept(exception);
+					}
+				}
+				return;
+			}
+			final int middle = (start + end) >>> 1;
+			invokeAll(
+				new FanOutTask<>(listeners, action, value, start, middle, leafSize, failureHandler),
+				new FanOutTask<>(listeners, action, value, middle, end, leafSize, failureHandler));
+		}
+	}
+
+}
@@ -0,0 +1,435 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.dispatch;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import io.github.astrapi69.design.pattern.observer.chat.listener.MessageListener;
+import io.github.astrapi69.design.pattern.observer.event.EventListener;
+import io.github.astrapi69.design.pattern.observer.exception.ExceptionEvent;
+import io.github.astrapi69.design.pattern.observer.exception.ExceptionObservers;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link RateLimiter} bounds the rate at which a consumer receives the values of a
+ * subject, no matter how fast the subject produces them
+ *
+ * <p>
+ * A rate limiter implements {@link Observer}, {@link EventListener} and {@link MessageListener}, so
+ * it can be registered with any subject, event source or message source in place of the consumer
+ * The {@link RateLimitMode} decides which values are passed on, see the factory methods
+ * {@link #debounce(Duration, Consumer)}, {@link #throttleFirst(Duration, Consumer)},
+ * {@link #throttleLatest(Duration, Consumer)} and {@link #sample(Duration, Consumer)}
+ * </p>
+ *
+ * <p>
+ * The delayed values are passed on from a scheduler that all rate limiters share by default, a
+ * single daemon thread that only wakes up when a value is due So the consumer should return
+ * quickly, a slow consumer can be decoupled with a {@link Mailbox} Failures of the consumer on the
+ * scheduler are fired to the {@link ExceptionObservers}
+ * </p>
+ *
+ * @param <T>
+ *            the generic type of the values
+ */
+public class RateLimiter<T> implements Observer<T>, EventListener<T>, MessageListener<T>
+{
+
+	/** The marker for no pending value, needed because null is a valid value */
+	private static final Object EMPTY = new Object();
+
+	/** The consumer that receives the passed values */
+	private final Consumer<? super T> consumer;
+
+	/** The mode that decides which values are passed on */
+	@Getter
+	private final RateLimitMode rateLimitMode;
+
+	/** The interval in nanoseconds */
+	private final long intervalNanos;
+
+	/** The scheduler that passes on the delayed values */
+	@Getter
+	private final ScheduledExecutorService scheduler;
+
+	/** The lock that guards the state of this rate limiter */
+	private final Object lock = new Object();
+
+	/** The time in nanoseconds that the sample intervals are aligned to */
+	private final long origin = System.nanoTime();
+
+	/** The latest value that is not yet passed on, or {@link #EMPTY}, guarded by the lock */
+	private Object latest = EMPTY;
+
+	/** Flag that indicates if a task is scheduled, guarded by the lock */
+	private boolean scheduled;
+
+	/** Flag that indicates if the first value was passed on, guarded by the lock */
+	private boolean started;
+
+	/** The time in nanoseconds when the current throttle interval started, guarded by the lock */
+	private long windowStart;
+
+	/** The time in nanoseconds when the latest value arrived, guarded by the lock */
+	private long lastArrival;
+
+	/**
+	 * Instantiates a new {@link RateLimiter} on the shared scheduler
+	 *
+	 * @param rateLimitMode
+	 *            the mode that decides which values are passed on
+	 * @param interval
+	 *            the interval of the mode
+	 * @param consumer
+	 *            the consumer that receives the passed values
+	 */
+	public RateLimiter(final @NonNull RateLimitMode rateLimitMode, final @NonNull Duration interval,
+		final @NonNull Consumer<? super T> consumer)
+	{
+		this(rateLimitMode, interval, consumer, SharedScheduler.INSTANCE);
+	}
+
+	/**
+	 * Instantiates a new {@link RateLimiter}
+	 *
+	 * @param rateLimitMode
+	 *            the mode that decides which values are passed on
+	 * @param interval
+	 *            the interval of the mode
+	 * @param consumer
+	 *            the consumer that receives the passed values
+	 * @param scheduler
+	 *            the scheduler that passes on the delayed values
+	 */
+	public RateLimiter(final @NonNull RateLimitMode rateLimitMode, final @NonNull Duration interval,
+		final @NonNull Consumer<? super T> consumer,
+		final @NonNull ScheduledExecutorService scheduler)
+	{
+		if (interval.isNegative() || interval.isZero())
+		{
+			throw new IllegalArgumentException("interval must be positive but was " + interval);
+		}
+		this.rateLimitMode = rateLimitMode;
+		this.intervalNanos = interval.toNanos();
+		this.consumer = consumer;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Creates a rate limiter that passes the latest value only after no new value arrived for the
+	 * given quiet period
+	 *
+	 * @param <T>
+	 *            the generic type of the values
+	 * @param quietPeriod
+	 *            the time without new values before the latest value is passed on
+	 * @param consumer
+	 *            the consumer that receives the passed values
+	 * @return the new rate limiter
+	 */
+	public static <T> RateLimiter<T> debounce(final @NonNull Duration quietPeriod,
+		final @NonNull Consumer<? super T> consumer)
+	{
+		return new RateLimiter<>(RateLimitMode.DEBOUNCE, quietPeriod, consumer);
+	}
+
+	/**
+	 * Creates a rate limiter that passes the first value of every interval right away
+	 *
+	 * @param <T>
+	 *            the generic type of the values
+	 * @param interval
+	 *            the minimum time between two passed values
+	 * @param consumer
+	 *            the consumer that receives the passed values
+	 * @return the new rate limiter
+	 */
+	public static <T> RateLimiter<T> throttleFirst(final @NonNull Duration interval,
+		final @NonNull Consumer<? super T> consumer)
+	{
+		return new RateLimiter<>(RateLimitMode.THROTTLE_FIRST, interval, consumer);
+	}
+
+	/**
+	 * Creates a rate limiter that passes the first value right away and the latest value at the
+	 * end of every interval in which values arrived
+	 *
+	 * @param <T>
+	 *            the generic type of the values
+	 * @param interval
+	 *            the minimum time between two passed values
+	 * @param consumer
+	 *            the consumer that receives the passed values
+	 * @return the new rate limiter
+	 */
+	public static <T> RateLimiter<T> throttleLatest(final @NonNull Duration interval,
+		final @NonNull Consumer<? super T> consumer)
+	{
+		return new RateLimiter<>(RateLimitMode.THROTTLE_LATEST, interval, consumer);
+	}
+
+	/**
+	 * Creates a rate limiter that passes the latest value at the given fixed rate
+	 *
+	 * @param <T>
+	 *            the generic type of the values
+	 * @param period
+	 *            the period of the samples
+	 * @param consumer
+	 *            the consumer that receives the passed values
+	 * @return the new rate limiter
+	 */
+	public static <T> RateLimiter<T> sample(final @NonNull Duration period,
+		final @NonNull Consumer<? super T> consumer)
+	{
+		return new RateLimiter<>(RateLimitMode.SAMPLE, period, consumer);
+	}
+
+	/**
+	 * Gets the interval of the mode
+	 *
+	 * @return the interval
+	 */
+	public Duration getInterval()
+	{
+		return Duration.ofNanos(intervalNanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void update(final T observable)
+	{
+		offer(observable);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onEvent(final T event)
+	{
+		offer(event);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onMessage(final T event)
+	{
+		offer(event);
+	}
+
+	/**
+	 * Offers the given value to this rate limiter, a value that is passed on right away is passed
+	 * on the calling thread
+	 *
+	 * @param value
+	 *            the value
+	 */
+	@SuppressWarnings("unchecked")
+	public void offer(final T value)
+	{
+		final long now = System.nanoTime();
+		Object passed = EMPTY;
+		long delayNanos = -1L;
+		synchronized (lock)
+		{
+			switch (rateLimitMode)
+			{
+				case DEBOUNCE :
+					latest = value;
+					lastArrival = now;
+					if (!scheduled)
+					{
+						scheduled = true;
+						delayNanos = intervalNanos;
+					}
+					break;
+				case THROTTLE_FIRST :
+					if (!started || now - windowStart >= intervalNanos)
+					{
+						started = true;
+						windowStart = now;
+						passed = value;
+					}
+					break;
+				case THROTTLE_LATEST :
+					if (scheduled)
+					{
+						latest = value;
+					}
+					else
+					{
+						scheduled = true;
+						windowStart = now;
+						passed = value;
+						delayNanos = intervalNanos;
+					}
+					break;
+				default :
+					latest = value;
+					if (!scheduled)
+					{
+						scheduled = true;
+						delayNanos = intervalNanos - (now - origin) % intervalNanos;
+					}
+					break;
+			}
+		}
+		if (delayNanos >= 0L)
+		{
+			schedule(delayNanos);
+		}
+		if (passed != EMPTY)
+		{
+			consumer.accept((T)passed);
+		}
+	}
+
+	/**
+	 * Schedules the next task on the scheduler
+	 *
+	 * @param delayNanos
+	 *            the delay in nanoseconds
+	 */
+	private void schedule(final long delayNanos)
+	{
+		try
+		{
+			scheduler.schedule(this::fire, delayNanos, TimeUnit.NANOSECONDS);
+		}
+		catch (final RejectedExecutionException exception)
+		{
+			synchronized (lock)
+			{
+				scheduled = false;
+			}
+			throw exception;
+		}
+	}
+
+	/**
+	 * Passes the pending value on if it is due and schedules the next task if needed
+	 */
+	@SuppressWarnings("unchecked")
+	private void fire()
+	{
+		final long now = System.nanoTime();
+		Object passed = EMPTY;
+		long delayNanos = -1L;
+		synchronized (lock)
+		{
+			switch (rateLimitMode)
+			{
+				case DEBOUNCE :
+					final long quietNanos = now - lastArrival;
+					if (quietNanos >= intervalNanos)
+					{
+						passed = latest;
+						latest = EMPTY;
+						scheduled = false;
+					}
+					else
+					{
+						delayNanos = intervalNanos - quietNanos;
+					}
+					break;
+				case THROTTLE_LATEST :
+					if (latest != EMPTY)
+					{
+						passed = latest;
+						latest = EMPTY;
+						windowStart = now;
+						delayNanos = intervalNanos;
+					}
+					else
+					{
+						scheduled = false;
+					}
+					break;
+				default :
+					passed = latest;
+					latest = EMPTY;
+					scheduled = false;
+					break;
+			}
+		}
+		if (delayNanos >= 0L)
+		{
+			schedule(delayNanos);
+		}
+		if (passed != EMPTY)
+		{
+			try
+			{
+				consumer.accept((T)passed);
+			}
+			catch (final RuntimeException exception)
+			{
+				ExceptionObservers.getInstance().fireExceptionEvent(new ExceptionEvent(exception));
+			}
+		}
+	}
+
+	/**
+	 * Holds the scheduler that all rate limiters share by default, it is created on first use
+	 */
+	private static final class SharedScheduler
+	{
+
+		/** The shared scheduler with one daemon thread */
+		static final ScheduledExecutorService INSTANCE = create();
+
+		/**
+		 * Creates the shared scheduler
+		 *
+		 * @return the shared scheduler
+		 */
+		private static ScheduledExecutorService create()
+		{
+			final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+				runnable -> {
+					final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+					thread.setDaemon(true);
+					thread.setName("observer-rate-limiter-" + thread.getName());
+					return thread;
+				});
+			scheduler.setRemoveOnCancelPolicy(true);
+			return scheduler;
+		}
+	}
+
+}
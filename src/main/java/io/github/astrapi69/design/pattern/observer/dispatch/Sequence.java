@@ -0,0 +1,155 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.dispatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * The class {@link Sequence} is a counter for the position of a producer or consumer in a ring
+ * buffer The value is padded on both sides, so that sequences that are written by different
+ * threads do not share a cache line
+ */
+public class Sequence extends SequenceRightPadding
+{
+
+	/** The handle for the ordered access to the value */
+	private static final VarHandle VALUE;
+
+	static
+	{
+		try
+		{
+			VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+		}
+		catch (final ReflectiveOperationException exception)
+		{
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+
+	/**
+	 * Instantiates a new {@link Sequence} with the given initial value
+	 *
+	 * @param initialValue
+	 *            the initial value
+	 */
+	public Sequence(final long initialValue)
+	{
+		VALUE.setRelease(this, initialValue);
+	}
+
+	/**
+	 * Gets the value with acquire semantics
+	 *
+	 * @return the current value
+	 */
+	public long get()
+	{
+		return (long)VALUE.getAcquire(this);
+	}
+
+	/**
+	 * Sets the value with release semantics, so all writes before are visible to a thread that
+	 * reads the new value
+	 *
+	 * @param value
+	 *            the new value
+	 */
+	public void set(final long value)
+	{
+		VALUE.setRelease(this, value);
+	}
+
+	/**
+	 * Atomically increments the value
+	 *
+	 * @return the value before the increment
+	 */
+	public long getAndIncrement()
+	{
+		return (long)VALUE.getAndAdd(this, 1L);
+	}
+
+	/**
+	 * Gets the minimum value of the given sequences
+	 *
+	 * @param sequences
+	 *            the sequences
+	 * @param defaultValue
+	 *            the value that is returned if there are no sequences
+	 * @return the minimum value of the given sequences or the default value
+	 */
+	public static long minimumOf(final Sequence[] sequences, final long defaultValue)
+	{
+		long minimum = defaultValue;
+		for (int i = 0; i < sequences.length; i++)
+		{
+			final long value = sequences[i].get();
+			if (i == 0 || value < minimum)
+			{
+				minimum = value;
+			}
+		}
+		return minimum;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString()
+	{
+		return Long.toString(get());
+	}
+
+}
+
+/**
+ * The padding before the value of a {@link Sequence}
+ */
+abstract class SequenceLeftPadding
+{
+	/** Padding fields */
+	protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+/**
+ * The value of a {@link Sequence}
+ */
+abstract class SequenceValue extends SequenceLeftPadding
+{
+	/** The value that is accessed over a var handle */
+	protected volatile long value;
+}
+
+/**
+ * The padding after the value of a {@link Sequence}
+ */
+abstract class SequenceRightPadding extends SequenceValue
+{
+	/** Padding fields */
+	protected long p9, p10, p11, p12, p13, p14, p15;
+}
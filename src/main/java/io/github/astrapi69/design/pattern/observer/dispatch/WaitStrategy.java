@@ -0,0 +1,131 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.dispatch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The enum {@link WaitStrategy} decides how a thread waits for a {@link Sequence} to advance,
+ * trading latency against the CPU that is burned while waiting
+ */
+public enum WaitStrategy
+{
+
+	/**
+	 * Spins on the CPU, which gives the lowest latency but occupies a core while waiting
+	 */
+	BUSY_SPIN
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void idle(final int attempt)
+		{
+			Thread.onSpinWait();
+		}
+	},
+
+	/**
+	 * Spins for a short while and then yields the CPU to other threads
+	 */
+	YIELD
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void idle(final int attempt)
+		{
+			if (attempt < SPIN_ATTEMPTS)
+			{
+				Thread.onSpinWait();
+			}
+			else
+			{
+				Thread.yield();
+			}
+		}
+	},
+
+	/**
+	 * Spins and yields for a short while and then parks the thread, which saves the CPU at the cost
+	 * of a higher latency
+	 */
+	PARK
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void idle(final int attempt)
+		{
+			if (attempt < SPIN_ATTEMPTS)
+			{
+				Thread.onSpinWait();
+			}
+			else if (attempt < SPIN_ATTEMPTS * 2)
+			{
+				Thread.yield();
+			}
+			else
+			{
+				LockSupport.parkNanos(PARK_NANOS);
+			}
+		}
+	};
+
+	/** The number of attempts that spin before the strategy backs off */
+	private static final int SPIN_ATTEMPTS = 100;
+
+	/** The time a parking thread sleeps before it checks again */
+	private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	/** The attempt from which every strategy has reached its last stage */
+	private static final int LAST_STAGE_ATTEMPTS = SPIN_ATTEMPTS * 2;
+
+	/**
+	 * Gets the attempt that follows the given attempt The attempt stops growing once every strategy
+	 * has reached its last stage, so a long wait never overflows back into spinning
+	 *
+	 * @param attempt
+	 *            the number of times the caller has already waited for the current condition
+	 * @return the attempt to pass to the next call of {@link #idle(int)}
+	 */
+	public static int nextAttempt(final int attempt)
+	{
+		return attempt < LAST_STAGE_ATTEMPTS ? attempt + 1 : attempt;
+	}
+
+	/**
+	 * Waits once while the awaited condition is not fulfilled
+	 *
+	 * @param attempt
+	 *            the number of times the caller has already waited for the current condition
+	 */
+	public abstract void idle(final int attempt);
+
+}
@@ -0,0 +1,496 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.dispatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import io.github.astrapi69.design.pattern.observer.exception.ExceptionEvent;
+import io.github.astrapi69.design.pattern.observer.exception.ExceptionObservers;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link Watchdog} enforces a time budget on every invocation of an asynchronous dispatch
+ * An invocation that does not return within the timeout is reported as {@link TimeoutException}
+ * to a timeout handler, that fires it to the {@link ExceptionObservers} by default, and is handled
+ * after the {@link TimeoutPolicy}
+ *
+ * <p>
+ * The timeouts are kept in a hashed timing wheel that one daemon thread advances tick by tick, so
+ * watching an invocation costs only an entry in a queue and no scheduled task An invocation that
+ * returns before the next tick never reaches the wheel, and an expired timeout is detected at the
+ * latest one tick after its deadline
+ * </p>
+ *
+ * <p>
+ * The timeout handler runs on the executor of the expired invocation, so a slow handler never
+ * delays the wheel and the timeouts of other invocations
+ * </p>
+ */
+public class Watchdog implements AutoCloseable
+{
+
+	/** The state of a watch whose invocation is running */
+	private static final int RUNNING = 0;
+
+	/** The state of a watch whose invocation returned in time */
+	private static final int DONE = 1;
+
+	/** The state of a watch whose timeout is being handled */
+	private static final int EXPIRING = 2;
+
+	/** The state of a watch whose timeout was handled */
+	private static final int EXPIRED = 3;
+
+	/** The handle for the atomic access to the state of a watch */
+	private static final VarHandle STATE;
+
+	static
+	{
+		try
+		{
+			STATE = MethodHandles.lookup().findVarHandle(Watch.class, "state", int.class);
+		}
+		catch (final ReflectiveOperationException exception)
+		{
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+
+	/** The policy that decides what happens with an invocation that exceeded its timeout */
+	@Getter
+	private final TimeoutPolicy timeoutPolicy;
+
+	/** The timeout of every invocation in nanoseconds */
+	private final long timeoutNanos;
+
+	/** The duration of one tick of the wheel in nanoseconds */
+	private final long tickNanos;
+
+	/** The buckets of the wheel, each one is a linked list that only the worker thread touches */
+	private final Watch[] wheel;
+
+	/** The mask that maps a tick to its bucket */
+	private final int mask;
+
+	/** The watches that were started and are not yet in the wheel */
+	private final Queue<Watch> pending = new ConcurrentLinkedQueue<>();
+
+	/** The handler that receives the timeouts */
+	private final Consumer<? super TimeoutException> timeoutHandler;
+
+	/** The factory that creates the worker thread */
+	private final ThreadFactory threadFactory;
+
+	/** Flag that indicates if the worker thread was started */
+	private final AtomicBoolean started = new AtomicBoolean();
+
+	/** The number of invocations that exceeded their timeout */
+	private final AtomicLong expiredCount = new AtomicLong();
+
+	/** The time in nanoseconds when the worker thread started */
+	private volatile long startTime;
+
+	/** Flag that indicates if this watchdog is closed */
+	private volatile boolean closed;
+
+	/** The worker thread that advances the wheel */
+	private volatile Thread worker;
+
+	/**
+	 * Instantiates a new {@link Watchdog} with a tick of a tenth of the timeout, at least one
+	 * millisecond, that fires the timeouts to the {@link ExceptionObservers}
+	 *
+	 * @param timeout
+	 *            the timeout of every invocation
+	 * @param timeoutPolicy
+	 *            the policy that decides what happens with an invocation that exceeded its timeout
+	 */
+	public Watchdog(final @NonNull Duration timeout, final @NonNull TimeoutPolicy timeoutPolicy)
+	{
+		this(timeout, timeoutPolicy,
+			Duration.ofNanos(Math.max(TimeUnit.MILLISECONDS.toNanos(1), timeout.toNanos() / 10)),
+			512, exception -> ExceptionObservers.getInstance()
+				.fireExceptionEvent(new ExceptionEvent(exception)));
+	}
+
+	/**
+	 * Instantiates a new {@link Watchdog} whose worker is a daemon thread
+	 *
+	 * @param timeout
+	 *            the timeout of every invocation
+	 * @param timeoutPolicy
+	 *            the policy that decides what happens with an invocation that exceeded its timeout
+	 * @param tickDuration
+	 *            the duration of one tick of the wheel, the precision of the timeouts
+	 * @param ticksPerWheel
+	 *            the number of buckets of the wheel, must be a power of two
+	 * @param timeoutHandler
+	 *            the handler that receives the timeouts
+	 */
+	public Watchdog(final @NonNull Duration timeout, final @NonNull TimeoutPolicy timeoutPolicy,
+		final @NonNull Duration tickDuration, final int ticksPerWheel,
+		final @NonNull Consumer<? super TimeoutException> timeoutHandler)
+	{
+		if (timeout.isNegative() || timeout.isZero() || tickDuration.isNegative()
+			|| tickDuration.isZero())
+		{
+			throw new IllegalArgumentException("timeout and tickDuration must be positive but were "
+				+ timeout + " and " + tickDuration);
+		}
+		if (ticksPerWheel < 1 || Integer.bitCount(ticksPerWheel) != 1)
+		{
+			throw new IllegalArgumentException(
+				"ticksPerWheel must be a power of two but was " + ticksPerWheel);
+		}
+		this.timeoutNanos = timeout.toNanos();
+		this.timeoutPolicy = timeoutPolicy;
+		this.tickNanos = tickDuration.toNanos();
+		this.wheel = new Watch[ticksPerWheel];
+		this.mask = ticksPerWheel - 1;
+		this.timeoutHandler = timeoutHandler;
+		this.threadFactory = runnable -> {
+			final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+			thread.setDaemon(true);
+			thread.setName("observer-watchdog-" + thread.getName());
+			return thread;
+		};
+	}
+
+	/**
+	 * Gets the timeout of every invocation
+	 *
+	 * @return the timeout
+	 */
+	public Duration getTimeout()
+	{
+		return Duration.ofNanos(timeoutNanos);
+	}
+
+	/**
+	 * Gets the number of invocations that exceeded their timeout
+	 *
+	 * @return the number of expired invocations
+	 */
+	public long getExpiredCount()
+	{
+		return expiredCount.get();
+	}
+
+	/**
+	 * Stops the worker thread, invocations that are watched afterwards are no longer timed out
+	 */
+	@Override
+	public void close()
+	{
+		closed = true;
+		final Thread current = worker;
+		if (current != null)
+		{
+			LockSupport.unpark(current);
+		}
+	}
+
+	/**
+	 * Starts to watch an invocation of the given listener on the current thread
+	 *
+	 * @param listener
+	 *            the listener that is invoked
+	 * @param executor
+	 *            the executor of the invocation that runs the timeout handler
+	 * @param onExpired
+	 *            the callback that receives the timeout if the invocation expires, it runs on the
+	 *            thread of the watchdog and must not block
+	 * @return the watch that the invocation must {@link Watch#finish() finish} when it returns
+	 */
+	Watch watch(final Object listener, final Executor executor,
+		final Consumer<? super TimeoutException> onExpired)
+	{
+		if (!started.get() && started.compareAndSet(false, true))
+		{
+			startTime = System.nanoTime();
+			final Thread thread = threadFactory.newThread(this::advance);
+			worker = thread;
+			thread.start();
+		}
+		final Watch watch = new Watch(listener, Thread.currentThread(), executor, onExpired,
+			System.nanoTime() + timeoutNanos);
+		if (!closed)
+		{
+			pending.add(watch);
+		}
+		return watch;
+	}
+
+	/**
+	 * Advances the wheel tick by tick until this watchdog is closed
+	 */
+	private void advance()
+	{
+		long tick = 0;
+		while (!closed)
+		{
+			final long deadline = startTime + (tick + 1) * tickNanos;
+			long sleepNanos;
+			while ((sleepNanos = deadline - System.nanoTime()) > 0)
+			{
+				LockSupport.parkNanos(this, sleepNanos);
+				if (closed)
+				{
+					return;
+				}
+			}
+			transferPending(tick);
+			expireBucket(tick);
+			tick++;
+		}
+	}
+
+	/**
+	 * Moves the pending watches into the buckets of their deadline, watches whose invocation
+	 * already returned are dropped
+	 *
+	 * @param tick
+	 *            the current tick
+	 */
+	private void transferPending(final long tick)
+	{
+		Watch watch;
+		while ((watch = pending.poll()) != null)
+		{
+			if ((int)STATE.getVolatile(watch) != RUNNING)
+			{
+				continue;
+			}
+			final long calculated = (watch.deadline - startTime) / tickNanos;
+			watch.remainingRounds = Math.max(0, (calculated - tick) / wheel.length);
+			final int index = (int)(Math.max(calculated, tick) & mask);
+			watch.next = wheel[index];
+			wheel[index] = watch;
+		}
+	}
+
+	/**
+	 * Expires the watches of the bucket of the given tick whose last round has come, watches whose
+	 * invocation already returned are dropped
+	 *
+	 * @param tick
+	 *            the current tick
+	 */
+	private void expireBucket(final long tick)
+	{
+		final int index = (int)(tick & mask);
+		Watch watch = wheel[index];
+		Watch kept = null;
+		while (watch != null)
+		{
+			final Watch next = watch.next;
+			watch.next = null;
+			if ((int)STATE.getVolatile(watch) == RUNNING)
+			{
+				if (watch.remainingRounds > 0)
+				{
+					watch.remainingRounds--;
+					watch.next = kept;
+					kept = watch;
+				}
+				else
+				{
+					expire(watch);
+				}
+			}
+			watch = next;
+		}
+		wheel[index] = kept;
+	}
+
+	/**
+	 * Handles the given watch whose invocation exceeded its timeout and hands the timeout to the
+	 * timeout handler on the executor of the invocation
+	 *
+	 * @param watch
+	 *            the expired watch
+	 */
+	private void expire(final Watch watch)
+	{
+		if (!STATE.compareAndSet(watch, RUNNING, EXPIRING))
+		{
+			return;
+		}
+		expiredCount.incrementAndGet();
+		final TimeoutException exception = new TimeoutException("The invocation of "
+			+ watch.listener + " did not return within " + getTimeout());
+		try
+		{
+			watch.onExpired.accept(exception);
+			if (timeoutPolicy == TimeoutPolicy.INTERRUPT)
+			{
+				watch.thread.interrupt();
+			}
+		}
+		catch (final RuntimeException failure)
+		{
+			handleUncaught(failure);
+		}
+		finally
+		{
+			STATE.setVolatile(watch, EXPIRED);
+		}
+		try
+		{
+			watch.executor.execute(() -> handleTimeout(exception));
+		}
+		catch (final RejectedExecutionException rejected)
+		{
+			handleTimeout(exception);
+		}
+	}
+
+	/**
+	 * Passes the given timeout to the timeout handler, a failure of the handler is passed to the
+	 * uncaught exception handler of the current thread
+	 *
+	 * @param exception
+	 *            the timeout
+	 */
+	private void handleTimeout(final TimeoutException exception)
+	{
+		try
+		{
+			timeoutHandler.accept(exception);
+		}
+		catch (final RuntimeException failure)
+		{
+			handleUncaught(failure);
+		}
+	}
+
+	/**
+	 * Passes the given failure to the uncaught exception handler of the current thread
+	 *
+	 * @param failure
+	 *            the failure
+	 */
+	private static void handleUncaught(final RuntimeException failure)
+	{
+		final Thread current = Thread.currentThread();
+		current.getUncaughtExceptionHandler().uncaughtException(current, failure);
+	}
+
+	/**
+	 * The watch of one invocation
+	 */
+	final class Watch
+	{
+
+		/** The listener that is invoked */
+		final Object listener;
+
+		/** The thread that runs the invocation */
+		final Thread thread;
+
+		/** The executor of the invocation that runs the timeout handler */
+		final Executor executor;
+
+		/** The callback that receives the timeout if the invocation expires */
+		final Consumer<? super TimeoutException> onExpired;
+
+		/** The time in nanoseconds when the invocation expires */
+		final long deadline;
+
+		/** The rounds of the wheel left until the deadline, only touched by the worker thread */
+		long remainingRounds;
+
+		/** The next watch in the same bucket, only touched by the worker thread */
+		Watch next;
+
+		/** The state of this watch that is accessed over {@link Watchdog#STATE} */
+		@SuppressWarnings("unused")
+		private volatile int state;
+
+		/**
+		 * Instantiates a new {@link Watch}
+		 *
+		 * @param listener
+		 *            the listener that is invoked
+		 * @param thread
+		 *            the thread that runs the invocation
+		 * @param executor
+		 *            the executor of the invocation that runs the timeout handler
+		 * @param onExpired
+		 *            the callback that receives the timeout if the invocation expires
+		 * @param deadline
+		 *            the time in nanoseconds when the invocation expires
+		 */
+		Watch(final Object listener, final Thread thread, final Executor executor,
+			final Consumer<? super TimeoutException> onExpired, final long deadline)
+		{
+			this.listener = listener;
+			this.thread = thread;
+			this.executor = executor;
+			this.onExpired = onExpired;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Finishes the watch after the invocation returned If the invocation expired, this method
+		 * waits until the timeout is handled and clears the interrupt that the watchdog raised
+		 *
+		 * @return true if the invocation still has to complete the dispatch, false if the dispatch
+		 *         abandoned it
+		 */
+		boolean finish()
+		{
+			if (STATE.compareAndSet(this, RUNNING, DONE))
+			{
+				return true;
+			}
+			while ((int)STATE.getVolatile(this) == EXPIRING)
+			{
+				Thread.onSpinWait();
+			}
+			if (timeoutPolicy == TimeoutPolicy.INTERRUPT)
+			{
+				Thread.interrupted();
+			}
+			return timeoutPolicy != TimeoutPolicy.ABANDON;
+		}
+	}
+
+}
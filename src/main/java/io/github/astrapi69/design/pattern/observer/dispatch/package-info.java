@@ -0,0 +1,41 @@
+/**
+ * Provides classes for dispatching notifications to observers and listeners
+ *
+ * <p>
+ * The classes in this package decouple the notification of observers and listeners from the thread
+ * that publishes a change, so that a slow or failing listener does not stall the producer.
+ * </p>
+ *
+ * <p>
+ * The key classes in this package include:
+ * </p>
+ * <ul>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.AsyncDispatcher} - Notifies
+ * listeners on an executor and signals the completion with a future</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.CircuitState} - The states of
+ * the circuit breaker that a dispatch guard keeps for every observer</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.DispatchException} - Collects the
+ * failures of all listeners that were notified in one dispatch</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.DispatchGuard} - Isolates failing
+ * and slow observers with a circuit breaker per observer</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.Mailbox} - Queues the values for
+ * one consumer in a bounded ring buffer and delivers them on an executor</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.OverflowPolicy} - Decides what a
+ * mailbox does with a new value when it is full</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.ParallelFanOut} - Notifies a
+ * large list of listeners in parallel on a fork join pool</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.RateLimiter} - Bounds the rate
+ * at which a consumer receives the values of a subject with a shared scheduler</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.RateLimitMode} - Decides which
+ * values a rate limiter passes on</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.Sequence} - A counter for the
+ * position in a ring buffer that is padded against false sharing</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.TimeoutPolicy} - Decides what a
+ * watchdog does with an invocation that exceeded its timeout</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.WaitStrategy} - Decides how a
+ * thread waits for a sequence to advance</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.dispatch.Watchdog} - Enforces a timeout
+ * on every invocation of an asynchronous dispatch with a timing wheel</li>
+ * </ul>
+ */
+package io.github.astrapi69.design.pattern.observer.dispatch;
@@ -0,0 +1,150 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.event;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link EventBus} is a {@link TypedEventSubject} that delivers posted events to the
+ * methods of its subscribers that are annotated with {@link Subscribe} Every subscriber method is
+ * subscribed for its parameter type, so it receives the events that are instances of this type
+ *
+ * <p>
+ * The subscriber methods of a class are discovered only once and bound to generated invokers, so
+ * registering another instance of a known class needs no reflection and delivering an event costs
+ * about as much as a direct call
+ * </p>
+ */
+public class EventBus extends TypedEventSubject<Object>
+{
+
+	/** The listeners of the registered subscribers by their identity */
+	private final Map<Object, List<SubscriberListener>> subscribers = new IdentityHashMap<>();
+
+	/**
+	 * Registers the subscriber methods of the given subscriber
+	 *
+	 * @param subscriber
+	 *            the object with methods that are annotated with {@link Subscribe}
+	 * @throws IllegalArgumentException
+	 *             if an annotated method has an invalid signature or cannot be accessed
+	 */
+	public synchronized void register(final @NonNull Object subscriber)
+	{
+		if (subscribers.containsKey(subscriber))
+		{
+			return;
+		}
+		final SubscriberMethod[] subscriberMethods = SubscriberMethod.of(subscriber.getClass());
+		final List<SubscriberListener> listeners = new ArrayList<>(subscriberMethods.length);
+		for (final SubscriberMethod subscriberMethod : subscriberMethods)
+		{
+			final SubscriberListener listener = new SubscriberListener(subscriber, subscriberMethod);
+			subscribe(subscriberMethod.eventType, listener);
+			listeners.add(listener);
+		}
+		subscribers.put(subscriber, listeners);
+	}
+
+	/**
+	 * Unregisters the subscriber methods of the given subscriber
+	 *
+	 * @param subscriber
+	 *            the subscriber to unregister
+	 */
+	public synchronized void unregister(final Object subscriber)
+	{
+		final List<SubscriberListener> listeners = subscribers.remove(subscriber);
+		if (listeners != null)
+		{
+			for (final SubscriberListener listener : listeners)
+			{
+				unsubscribe(listener.subscriberMethod.eventType, listener);
+			}
+		}
+	}
+
+	/**
+	 * Posts the given event to all subscriber methods that accept it
+	 *
+	 * @param event
+	 *            the event to post
+	 */
+	public void post(final @NonNull Object event)
+	{
+		fireEvent(event);
+	}
+
+	/**
+	 * The listener that calls one subscriber method of a subscriber
+	 */
+	private static final class SubscriberListener implements EventListener<Object>
+	{
+
+		/** The subscriber */
+		private final Object subscriber;
+
+		/** The subscriber method */
+		private final SubscriberMethod subscriberMethod;
+
+		/**
+		 * Instantiates a new {@link SubscriberListener}
+		 *
+		 * @param subscriber
+		 *            the subscriber
+		 * @param subscriberMethod
+		 *            the subscriber method
+		 */
+		SubscriberListener(final Object subscriber, final SubscriberMethod subscriberMethod)
+		{
+			this.subscriber = subscriber;
+			this.subscriberMethod = subscriberMethod;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onEvent(final Object event)
+		{
+			subscriberMethod.invoker.accept(subscriber, event);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String toString()
+		{
+			return subscriberMethod.name;
+		}
+	}
+
+}
@@ -24,6 +24,8 @@
  */
 package io.github.astrapi69.design.pattern.observer.event;
 
+import java.util.List;
+
 /**
  * The {@link EventListener} interface is for receiving events The class that is interested in
  * processing an event implements this interface, and the object created with that class is
@@ -44,4 +46,21 @@ public interface EventListener<T>
 	 */
 	void onEvent(final T event);
 
+	/**
+	 * Handles the given events at once The default implementation calls {@link #onEvent(Object)}
+	 * for each event in order, listeners that can process the whole batch more efficiently should
+	 * override this method
+	 *
+	 * @param events
+	 *            the unmodifiable list of events in the order they were fired
+	 */
+	default void onEvents(final List<T> events)
+	{
+		final int size = events.size();
+		for (int i = 0; i < size; i++)
+		{
+			onEvent(events.get(i));
+		}
+	}
+
 }
@@ -71,7 +71,7 @@ public class EventObject<T>
 	 */
 	public static <T> EventObject<T> of(final @NonNull T source)
 	{
-		return EventObject.<T> builder().source(source).build();
+		return new EventObject<>(source);
 	}
 
 }
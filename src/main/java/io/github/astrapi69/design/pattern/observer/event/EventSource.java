@@ -60,6 +60,23 @@ public interface EventSource<T>
 	 */
 	void fireEvent(final T source);
 
+	/**
+	 * Fires events to all registered listeners for each of the given source objects The default
+	 * implementation calls {@link #fireEvent(Object)} for each source object, implementations
+	 * should notify each listener only once with the whole batch over
+	 * {@link EventListener#onEvents(java.util.List)}
+	 *
+	 * @param sources
+	 *            the source objects that the events relate to in order
+	 */
+	default void fireEvents(final Collection<T> sources)
+	{
+		for (final T source : sources)
+		{
+			fireEvent(source);
+		}
+	}
+
 	/**
 	 * Removes the given event listener from the list of event listeners
 	 *
@@ -26,10 +26,23 @@ package io.github.astrapi69.design.pattern.observer.event;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+
+import io.github.astrapi69.design.pattern.observer.dispatch.AsyncDispatcher;
+import io.github.astrapi69.design.pattern.observer.dispatch.Watchdog;
+import io.github.astrapi69.design.pattern.observer.metrics.DispatchMetrics;
+import io.github.astrapi69.design.pattern.observer.registry.ObserverRegistry;
+import io.github.astrapi69.design.pattern.observer.registry.RegistrationMode;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import lombok.ToString;
 
 /**
@@ -45,22 +58,45 @@ import lombok.ToString;
 public class EventSubject<T> implements EventSource<T>
 {
 
-	/** The collection of registered event listeners */
-	private final Collection<EventListener<T>> eventListeners;
+	/**
+	 * The registry of the registered event listeners, compared and printed over the snapshot of
+	 * {@link #getEventListeners()}
+	 */
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final ObserverRegistry<EventListener<T>> eventListeners;
 
 	/** The source object associated with the event */
 	private T source;
 
-	/* Initialization block to initialize the eventListeners collection */
-	{
-		eventListeners = new ArrayList<>();
-	}
+	/** The executor that notifies the listeners on {@link #fireEventAsync(Object)} */
+	@Setter
+	@NonNull
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private volatile Executor executor = ForkJoinPool.commonPool();
+
+	/** The metrics that record the fired events, null if the events are not recorded */
+	@Setter
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private volatile DispatchMetrics metrics;
+
+	/**
+	 * The watchdog that enforces a timeout on every listener of {@link #fireEventAsync(Object)},
+	 * null if the listeners are not timed out
+	 */
+	@Setter
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private volatile Watchdog watchdog;
 
 	/**
 	 * Instantiates a new {@code EventSubject} with no initial source
 	 */
 	public EventSubject()
 	{
+		this(null);
 	}
 
 	/**
@@ -70,8 +106,40 @@ public class EventSubject<T> implements EventSource<T>
 	 *            the source object associated with the event
 	 */
 	public EventSubject(final T source)
+	{
+		this(source, RegistrationMode.EQUALITY);
+	}
+
+	/**
+	 * Instantiates a new {@code EventSubject} with the specified source and the mode that decides
+	 * how the event listeners are identified
+	 *
+	 * @param source
+	 *            the source object associated with the event
+	 * @param registrationMode
+	 *            the mode that decides if event listeners are identified by equality or by identity
+	 */
+	public EventSubject(final T source, final @NonNull RegistrationMode registrationMode)
+	{
+		this(source, new ObserverRegistry<>(registrationMode));
+	}
+
+	/**
+	 * Instantiates a new {@code EventSubject} with the specified source and the registry
+	 * that holds the event listeners, for instance a
+	 * {@link io.github.astrapi69.design.pattern.observer.registry.ShardedObserverRegistry} for
+	 * subjects with a high churn of event listeners
+	 *
+	 * @param source
+	 *            the source object associated with the event
+	 * @param eventListeners
+	 *            the registry that holds the event listeners
+	 */
+	public EventSubject(final T source,
+		final @NonNull ObserverRegistry<EventListener<T>> eventListeners)
 	{
 		this.source = source;
+		this.eventListeners = eventListeners;
 	}
 
 	/**
@@ -88,11 +156,23 @@ public class EventSubject<T> implements EventSource<T>
 		return new EventSubject<>(source);
 	}
 
+	/**
+	 * Gets an immutable snapshot of the registered event listeners
+	 *
+	 * @return the immutable snapshot of the registered event listeners
+	 */
+	@EqualsAndHashCode.Include
+	@ToString.Include(name = "eventListeners")
+	public Collection<EventListener<T>> getEventListeners()
+	{
+		return eventListeners.getObservers();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void add(final EventListener<T> eventListener)
+	public void add(final EventListener<T> eventListener)
 	{
 		eventListeners.add(eventListener);
 	}
@@ -101,7 +181,7 @@ public class EventSubject<T> implements EventSource<T>
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void addAll(final Collection<EventListener<T>> eventListeners)
+	public void addAll(final Collection<EventListener<T>> eventListeners)
 	{
 		this.eventListeners.addAll(eventListeners);
 	}
@@ -111,9 +191,54 @@ public class EventSubject<T> implements EventSource<T>
 	 */
 	private synchronized void fireEvent()
 	{
-		for (final EventListener<T> eventListener : eventListeners)
+		dispatch(listenersOf(eventListeners.getObservers(), source), EventListener::onEvent,
+			source);
+	}
+
+	/**
+	 * Gets the listeners that are notified of the given source, these are the given registered
+	 * listeners Subclasses that route a source to further listeners add them here, so all
+	 * listeners of one event are notified in one dispatch
+	 *
+	 * @param listeners
+	 *            the snapshot of the registered listeners
+	 * @param source
+	 *            the source object that the event relates to
+	 * @return the listeners to notify in order
+	 */
+	protected List<EventListener<T>> listenersOf(final List<EventListener<T>> listeners,
+		final T source)
+	{
+		return listeners;
+	}
+
+	/**
+	 * Applies the given action with the given value to the given listeners in order and records
+	 * the dispatch in the metrics if they are set Subclasses that notify further listeners route
+	 * them over this method, so the metrics apply to them as well
+	 *
+	 * @param <V>
+	 *            the generic type of the value
+	 * @param listeners
+	 *            the listeners to notify
+	 * @param action
+	 *            the action that notifies one listener with the value
+	 * @param value
+	 *            the value to pass to the listeners
+	 */
+	protected <V> void dispatch(final List<EventListener<T>> listeners,
+		final BiConsumer<? super EventListener<T>, ? super V> action, final V value)
+	{
+		final DispatchMetrics metrics = this.metrics;
+		if (metrics != null)
 		{
-			eventListener.onEvent(source);
+			metrics.dispatch(listeners, action, value);
+			return;
+		}
+		final int size = listeners.size();
+		for (int i = 0; i < size; i++)
+		{
+			action.accept(listeners.get(i), value);
 		}
 	}
 
@@ -127,11 +252,83 @@ public class EventSubject<T> implements EventSource<T>
 		fireEvent();
 	}
 
+	/**
+	 * Fires the events for the given source objects and notifies each listener once with the whole
+	 * batch over {@link EventListener#onEvents(List)} The last source object becomes the current
+	 * source
+	 *
+	 * @param sources
+	 *            the source objects that the events relate to in order
+	 */
+	@Override
+	public synchronized void fireEvents(final @NonNull Collection<T> sources)
+	{
+		if (sources.isEmpty())
+		{
+			return;
+		}
+		final List<T> batch = Collections.unmodifiableList(new ArrayList<>(sources));
+		this.source = batch.get(batch.size() - 1);
+		dispatch(eventListeners.getObservers(), EventListener::onEvents, batch);
+	}
+
+	/**
+	 * Fires the event with the given source asynchronously to all registered listeners on the
+	 * configured {@link #getExecutor() executor} The calling thread returns right after the events
+	 * are handed off
+	 *
+	 * <p>
+	 * The returned future completes when every listener has processed the event A failing listener
+	 * does not prevent the notification of the others, all failures are collected in a
+	 * {@link io.github.astrapi69.design.pattern.observer.dispatch.DispatchException} that completes
+	 * the future exceptionally
+	 * </p>
+	 *
+	 * @param source
+	 *            the source object that the event relates to
+	 * @return the future that completes when all listeners have processed the event
+	 */
+	public CompletableFuture<Void> fireEventAsync(final T source)
+	{
+		final List<EventListener<T>> listeners;
+		synchronized (this)
+		{
+			this.source = source;
+			listeners = eventListeners.getObservers();
+		}
+		return dispatchAsync(listenersOf(listeners, source), source);
+	}
+
+	/**
+	 * Notifies the given listeners asynchronously with the given source on the configured
+	 * {@link #getExecutor() executor} under the configured watchdog and records the dispatch in the
+	 * metrics if they are set Subclasses that notify further listeners add them to the given list,
+	 * so all listeners complete one future
+	 *
+	 * @param listeners
+	 *            the snapshot of the registered listeners
+	 * @param source
+	 *            the source object that the event relates to
+	 * @return the future that completes when all listeners have processed the event
+	 */
+	protected CompletableFuture<Void> dispatchAsync(final List<EventListener<T>> listeners,
+		final T source)
+	{
+		final DispatchMetrics metrics = this.metrics;
+		if (metrics != null)
+		{
+			return metrics.dispatchAsync(listeners, listener -> listener.onEvent(source), executor,
+				watchdog);
+		}
+		return AsyncDispatcher.dispatch(listeners, listener -> listener.onEvent(source), executor,
+			watchdog);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void remove(final EventListener<T> eventListener)
+	public void remove(final EventListener<T> eventListener)
 	{
 		eventListeners.remove(eventListener);
 	}
@@ -140,7 +337,7 @@ public class EventSubject<T> implements EventSource<T>
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized void removeAll(final Collection<EventListener<T>> eventListeners)
+	public void removeAll(final Collection<EventListener<T>> eventListeners)
 	{
 		this.eventListeners.removeAll(eventListeners);
 	}
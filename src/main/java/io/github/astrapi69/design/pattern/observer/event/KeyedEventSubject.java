@@ -0,0 +1,197 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.event;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import io.github.astrapi69.design.pattern.observer.registry.CombinedSnapshot;
+import io.github.astrapi69.design.pattern.observer.registry.SubscriptionIndex;
+import lombok.NonNull;
+
+/**
+ * The class {@link KeyedEventSubject} is an {@link EventSubject} that routes every event only to
+ * the listeners that subscribed for it Listeners subscribe for a key, and the key of every event
+ * source is computed with a key extractor and looked up in a {@link SubscriptionIndex}, so firing
+ * an event costs only as much as the number of matching listeners
+ *
+ * <p>
+ * Listeners that are added with {@link #add(EventListener)} still receive every event, and
+ * listeners that subscribe with a predicate are tested on every event
+ * </p>
+ *
+ * @param <K>
+ *            the generic type of the key
+ * @param <T>
+ *            the generic type of the source object
+ */
+public class KeyedEventSubject<K, T> extends EventSubject<T>
+{
+
+	/** The index of the listeners that subscribed for a key or a predicate */
+	private final SubscriptionIndex<K, T, EventListener<T>> subscriptions;
+
+	/** The concatenation of the added and the subscribed listeners of the last event */
+	private final CombinedSnapshot<EventListener<T>> notified = new CombinedSnapshot<>();
+
+	/**
+	 * Instantiates a new {@link KeyedEventSubject} with no initial source
+	 *
+	 * @param keyExtractor
+	 *            the function that computes the key of an event source
+	 */
+	public KeyedEventSubject(final @NonNull Function<? super T, ? extends K> keyExtractor)
+	{
+		this(null, keyExtractor);
+	}
+
+	/**
+	 * Instantiates a new {@link KeyedEventSubject} with the given initial source
+	 *
+	 * @param source
+	 *            the initial source object
+	 * @param keyExtractor
+	 *            the function that computes the key of an event source
+	 */
+	public KeyedEventSubject(final T source,
+		final @NonNull Function<? super T, ? extends K> keyExtractor)
+	{
+		super(source);
+		this.subscriptions = new SubscriptionIndex<>(keyExtractor);
+	}
+
+	/**
+	 * Subscribes the given listener for all events whose source has the given key
+	 *
+	 * @param key
+	 *            the key of the event sources
+	 * @param eventListener
+	 *            the event listener
+	 * @return true if the listener was subscribed, false if it was already subscribed for the key
+	 */
+	public boolean subscribe(final @NonNull K key, final @NonNull EventListener<T> eventListener)
+	{
+		return subscriptions.subscribe(key, eventListener);
+	}
+
+	/**
+	 * Unsubscribes the given listener from the events whose source has the given key
+	 *
+	 * @param key
+	 *            the key of the event sources
+	 * @param eventListener
+	 *            the event listener
+	 * @return true if the listener was unsubscribed
+	 */
+	public boolean unsubscribe(final @NonNull K key, final EventListener<T> eventListener)
+	{
+		return subscriptions.unsubscribe(key, eventListener);
+	}
+
+	/**
+	 * Subscribes the given listener for all events whose source matches the given predicate The
+	 * predicate is tested on every event
+	 *
+	 * @param filter
+	 *            the predicate that an event source must match
+	 * @param eventListener
+	 *            the event listener
+	 */
+	public void subscribeMatching(final @NonNull Predicate<? super T> filter,
+		final @NonNull EventListener<T> eventListener)
+	{
+		subscriptions.subscribeMatching(filter, eventListener);
+	}
+
+	/**
+	 * Unsubscribes all predicate subscriptions of the given listener
+	 *
+	 * @param eventListener
+	 *            the event listener
+	 * @return true if at least one subscription was removed
+	 */
+	public boolean unsubscribeMatching(final EventListener<T> eventListener)
+	{
+		return subscriptions.unsubscribeMatching(eventListener);
+	}
+
+	/**
+	 * Fires the events to the listeners that were added with the whole batch and then to the
+	 * listeners that subscribed for each source of the batch
+	 *
+	 * @param sources
+	 *            the source objects that the events relate to in order
+	 */
+	@Override
+	public synchronized void fireEvents(final @NonNull Collection<T> sources)
+	{
+		super.fireEvents(sources);
+		if (subscriptions.isEmpty())
+		{
+			return;
+		}
+		for (final T source : sources)
+		{
+			notifySubscribers(source);
+		}
+	}
+
+	/**
+	 * Gets the listeners that were added followed by the listeners that subscribed for the given
+	 * source, so all of them are notified in one dispatch
+	 *
+	 * @param listeners
+	 *            the snapshot of the listeners that were added
+	 * @param source
+	 *            the source object that the event relates to
+	 * @return the listeners to notify in order
+	 */
+	@Override
+	protected List<EventListener<T>> listenersOf(final List<EventListener<T>> listeners,
+		final T source)
+	{
+		return notified.of(listeners, subscriptions.getListeners(source));
+	}
+
+	/**
+	 * Notifies the listeners that subscribed for the given source over
+	 * {@link #dispatch(List, java.util.function.BiConsumer, Object)}, so the metrics apply to them
+	 * as well
+	 *
+	 * @param source
+	 *            the source object that the event relates to
+	 */
+	private void notifySubscribers(final T source)
+	{
+		final List<EventListener<T>> matching = subscriptions.getListeners(source);
+		if (!matching.isEmpty())
+		{
+			dispatch(matching, EventListener::onEvent, source);
+		}
+	}
+
+}
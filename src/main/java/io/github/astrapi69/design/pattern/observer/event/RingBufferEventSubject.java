@@ -0,0 +1,426 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.event;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.github.astrapi69.design.pattern.observer.dispatch.Sequence;
+import io.github.astrapi69.design.pattern.observer.dispatch.WaitStrategy;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link RingBufferEventSubject} is an implementation of the {@link EventSource}
+ * interface that hands events to its listeners over a preallocated ring buffer
+ *
+ * <p>
+ * Producers claim a slot in the ring buffer, store the source object in it and publish it, without
+ * taking a lock Every registered listener is driven by its own thread that follows the published
+ * slots with its own {@link Sequence} A producer only waits if the slowest listener is a full ring
+ * behind, so the memory of this subject stays bounded The slots are reused for all events, so
+ * firing an event does not allocate
+ * </p>
+ *
+ * <p>
+ * A listener that is added while events are fired receives the events that follow the published
+ * cursor at the time it was added, including the events that producers had already claimed but not
+ * yet published A slot is cleared as soon as every listener has processed it, so the ring buffer
+ * does not keep consumed source objects reachable The threads of the listeners are stopped by
+ * {@link #remove(EventListener)} and {@link #close()}
+ * </p>
+ *
+ * @param <T>
+ *            the generic type of the source object
+ */
+public class RingBufferEventSubject<T> implements EventSource<T>, AutoCloseable
+{
+
+	/** The slots of the ring buffer */
+	private final Object[] entries;
+
+	/** The sequence that was published last in each slot */
+	private final AtomicLongArray published;
+
+	/** The mask that maps a sequence to its slot */
+	private final int mask;
+
+	/** The strategy that producers and listeners use to wait */
+	@Getter
+	private final WaitStrategy waitStrategy;
+
+	/** The factory for the threads that drive the listeners */
+	private final ThreadFactory threadFactory;
+
+	/** The next sequence that is claimed by a producer */
+	private final Sequence claimSequence = new Sequence(0L);
+
+	/** The cached minimum of the listener sequences the last time a producer checked */
+	private final Sequence gatingSequenceCache = new Sequence(-1L);
+
+	/** The processors of the registered listeners, guarded by this subject */
+	private final Map<EventListener<T>, EventProcessor> processors = new LinkedHashMap<>();
+
+	/** The sequences of the registered listeners that gate the producers */
+	private volatile Sequence[] gatingSequences = new Sequence[0];
+
+	/** Flag that indicates if this subject was closed */
+	private volatile boolean closed;
+
+	/**
+	 * Instantiates a new {@link RingBufferEventSubject} whose listeners are driven by daemon threads
+	 *
+	 * @param capacity
+	 *            the number of slots of the ring buffer, must be a power of two
+	 * @param waitStrategy
+	 *            the strategy that producers and listeners use to wait
+	 */
+	public RingBufferEventSubject(final int capacity, final @NonNull WaitStrategy waitStrategy)
+	{
+		this(capacity, waitStrategy, runnable -> {
+			final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Instantiates a new {@link RingBufferEventSubject}
+	 *
+	 * @param capacity
+	 *            the number of slots of the ring buffer, must be a power of two
+	 * @param waitStrategy
+	 *            the strategy that producers and listeners use to wait
+	 * @param threadFactory
+	 *            the factory for the threads that drive the listeners
+	 */
+	public RingBufferEventSubject(final int capacity, final @NonNull WaitStrategy waitStrategy,
+		final @NonNull ThreadFactory threadFactory)
+	{
+		if (capacity < 1 || Integer.bitCount(capacity) != 1)
+		{
+			throw new IllegalArgumentException(
+				"capacity must be a power of two but was " + capacity);
+		}
+		this.entries = new Object[capacity];
+		this.published = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++)
+		{
+			published.set(i, -1L);
+		}
+		this.mask = capacity - 1;
+		this.waitStrategy = waitStrategy;
+		this.threadFactory = threadFactory;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void add(final @NonNull EventListener<T> eventListener)
+	{
+		if (closed)
+		{
+			throw new IllegalStateException("the ring buffer subject is closed");
+		}
+		if (processors.containsKey(eventListener))
+		{
+			return;
+		}
+		final EventProcessor processor = new EventProcessor(eventListener, oldestRetained());
+		processors.put(eventListener, processor);
+		updateGatingSequences();
+		processor.sequence.set(publishedCursor());
+		threadFactory.newThread(processor).start();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void addAll(final @NonNull Collection<EventListener<T>> eventListeners)
+	{
+		for (final EventListener<T> eventListener : eventListeners)
+		{
+			add(eventListener);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void fireEvent(final T source)
+	{
+		if (closed)
+		{
+			return;
+		}
+		final long sequence = claimSequence.getAndIncrement();
+		final long wrapPoint = sequence - entries.length;
+		if (gatingSequenceCache.get() <= wrapPoint)
+		{
+			long minimum = Sequence.minimumOf(gatingSequences, sequence - 1L);
+			for (int attempt = 0; minimum <= wrapPoint; attempt = WaitStrategy.nextAttempt(attempt))
+			{
+				waitStrategy.idle(attempt);
+				minimum = Sequence.minimumOf(gatingSequences, sequence - 1L);
+			}
+			gatingSequenceCache.set(minimum);
+		}
+		final int index = (int)sequence & mask;
+		entries[index] = source;
+		published.set(index, sequence);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void remove(final EventListener<T> eventListener)
+	{
+		final EventProcessor processor = processors.remove(eventListener);
+		if (processor != null)
+		{
+			processor.running = false;
+			updateGatingSequences();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void removeAll(final @NonNull Collection<EventListener<T>> eventListeners)
+	{
+		for (final EventListener<T> eventListener : eventListeners)
+		{
+			remove(eventListener);
+		}
+	}
+
+	/**
+	 * Gets the number of slots of the ring buffer
+	 *
+	 * @return the capacity of the ring buffer
+	 */
+	public int getCapacity()
+	{
+		return entries.length;
+	}
+
+	/**
+	 * Stops the threads of all listeners and rejects further listeners Events that are fired after
+	 * this subject was closed are dropped, and the events that are still held by the ring buffer
+	 * are released
+	 */
+	@Override
+	public synchronized void close()
+	{
+		closed = true;
+		for (final EventProcessor processor : processors.values())
+		{
+			processor.running = false;
+		}
+		processors.clear();
+		updateGatingSequences();
+		Arrays.fill(entries, null);
+	}
+
+	/**
+	 * Gets the sequence before the oldest event that can still be held by the ring buffer and is not
+	 * yet processed by all listeners
+	 *
+	 * @return the sequence before the oldest retained event
+	 */
+	private long oldestRetained()
+	{
+		return Math.max(Sequence.minimumOf(gatingSequences, -1L),
+			claimSequence.get() - 1L - entries.length);
+	}
+
+	/**
+	 * Gets the published cursor, which is the highest sequence up to which every claimed event is
+	 * published The new processor is already part of the gating sequences when this method is
+	 * called, so the slots that are scanned can not be reused meanwhile
+	 *
+	 * @return the published cursor
+	 */
+	private long publishedCursor()
+	{
+		final long claimed = claimSequence.get() - 1L;
+		long cursor = oldestRetained();
+		while (cursor < claimed && published.get((int)(cursor + 1L) & mask) == cursor + 1L)
+		{
+			cursor++;
+		}
+		return cursor;
+	}
+
+	/**
+	 * Publishes the sequences of the current processors to the producers
+	 */
+	private void updateGatingSequences()
+	{
+		gatingSequences = processors.values().stream()
+			.map(processor -> processor.sequence)
+			.toArray(Sequence[]::new);
+		gatingSequenceCache.set(-1L);
+	}
+
+	/**
+	 * The processor that drives one listener along the published slots
+	 */
+	private final class EventProcessor implements Runnable
+	{
+
+		/** The listener that receives the events */
+		final EventListener<T> eventListener;
+
+		/** The sequence of the last processed event */
+		final Sequence sequence;
+
+		/** Flag that indicates if this processor should keep running */
+		volatile boolean running = true;
+
+		/**
+		 * Instantiates a new {@link EventProcessor}
+		 *
+		 * @param eventListener
+		 *            the listener that receives the events
+		 * @param initialSequence
+		 *            the sequence after which the listener starts to receive events
+		 */
+		EventProcessor(final EventListener<T> eventListener, final long initialSequence)
+		{
+			this.eventListener = eventListener;
+			this.sequence = new Sequence(initialSequence);
+		}
+
+		/**
+		 * Processes the published events in batches of at most one ring until this processor is
+		 * stopped A failing listener is reported to the uncaught exception handler of the thread and
+		 * keeps receiving the following events If the processor stops for any other reason, it is
+		 * removed from the gating sequences, so the producers never wait for it
+		 *
+		 * <p>
+		 * After a batch the slots that all other listeners have already processed are cleared before
+		 * the sequence of this processor advances, because a producer can only reuse a slot after
+		 * that A slot that two listeners finish at the same time may stay uncleared until it is
+		 * reused
+		 * </p>
+		 */
+		@Override
+		public void run()
+		{
+			try
+			{
+				process();
+			}
+			finally
+			{
+				synchronized (RingBufferEventSubject.this)
+				{
+					if (processors.get(eventListener) == this)
+					{
+						processors.remove(eventListener);
+						updateGatingSequences();
+					}
+				}
+			}
+		}
+
+		/**
+		 * Processes the published events until this processor is stopped
+		 */
+		@SuppressWarnings("unchecked")
+		private void process()
+		{
+			long next = sequence.get() + 1L;
+			int attempt = 0;
+			while (running)
+			{
+				int index = (int)next & mask;
+				if (published.get(index) != next)
+				{
+					waitStrategy.idle(attempt);
+					attempt = WaitStrategy.nextAttempt(attempt);
+					continue;
+				}
+				attempt = 0;
+				final long end = next + entries.length;
+				do
+				{
+					try
+					{
+						eventListener.onEvent((T)entries[index]);
+					}
+					catch (final Throwable exception)
+					{
+						final Thread thread = Thread.currentThread();
+						thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+					}
+					next++;
+					index = (int)next & mask;
+				}
+				while (running && next < end && published.get(index) == next);
+				final long consumed = Math.min(next - 1L, minimumOfOthers(next - 1L));
+				for (long cleared = sequence.get() + 1L; cleared <= consumed; cleared++)
+				{
+					entries[(int)cleared & mask] = null;
+				}
+				sequence.set(next - 1L);
+			}
+		}
+
+		/**
+		 * Gets the minimum sequence of the other listeners
+		 *
+		 * @param defaultValue
+		 *            the value to return if no other listener is registered
+		 * @return the minimum sequence of the other listeners
+		 */
+		private long minimumOfOthers(final long defaultValue)
+		{
+			final Sequence[] current = gatingSequences;
+			long minimum = defaultValue;
+			for (int i = 0; i < current.length; i++)
+			{
+				final Sequence other = current[i];
+				if (other != sequence)
+				{
+					minimum = Math.min(minimum, other.get());
+				}
+			}
+			return minimum;
+		}
+	}
+
+}
@@ -0,0 +1,272 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.event;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * The class {@link SubscriberMethod} describes a method that is annotated with {@link Subscribe}
+ * and holds a generated invoker for it The subscriber methods of a class are discovered once and
+ * cached in a {@link ClassValue}, so registering further instances of the same class needs no
+ * reflection
+ *
+ * <p>
+ * The invoker is spun with the {@link LambdaMetafactory}, so calling it costs about as much as a
+ * direct call If the subscriber class cannot be accessed with full privileges, for instance because
+ * its module does not open its package, the invoker falls back to a {@link MethodHandle}
+ * </p>
+ */
+final class SubscriberMethod
+{
+
+	/** The cache of the subscriber methods per class */
+	private static final ClassValue<SubscriberMethod[]> SUBSCRIBER_METHODS = new ClassValue<>()
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected SubscriberMethod[] computeValue(final Class<?> type)
+		{
+			return discover(type);
+		}
+	};
+
+	/** The type of the events that the method receives */
+	final Class<?> eventType;
+
+	/** The invoker that calls the method on a subscriber with an event */
+	final BiConsumer<Object, Object> invoker;
+
+	/** The name of the method for diagnostics */
+	final String name;
+
+	/**
+	 * Instantiates a new {@link SubscriberMethod}
+	 *
+	 * @param eventType
+	 *            the type of the events that the method receives
+	 * @param invoker
+	 *            the invoker that calls the method
+	 * @param name
+	 *            the name of the method
+	 */
+	private SubscriberMethod(final Class<?> eventType, final BiConsumer<Object, Object> invoker,
+		final String name)
+	{
+		this.eventType = eventType;
+		this.invoker = invoker;
+		this.name = name;
+	}
+
+	/**
+	 * Gets the subscriber methods of the given class, including the inherited ones
+	 *
+	 * @param type
+	 *            the class of the subscriber
+	 * @return the cached subscriber methods of the class
+	 */
+	static SubscriberMethod[] of(final Class<?> type)
+	{
+		return SUBSCRIBER_METHODS.get(type);
+	}
+
+	/**
+	 * Discovers the subscriber methods of the given class and its superclasses, a method that is
+	 * overridden in a subclass is discovered only once
+	 *
+	 * @param type
+	 *            the class of the subscriber
+	 * @return the subscriber methods in a stable order
+	 * @throws IllegalArgumentException
+	 *             if an annotated method is static or has not exactly one reference parameter
+	 */
+	private static SubscriberMethod[] discover(final Class<?> type)
+	{
+		final Map<String, Method> methods = new LinkedHashMap<>();
+		for (Class<?> current = type; current != null
+			&& current != Object.class; current = current.getSuperclass())
+		{
+			final Method[] declared = current.getDeclaredMethods();
+			Arrays.sort(declared, Comparator.comparing(Method::toGenericString));
+			for (final Method method : declared)
+			{
+				if (!method.isAnnotationPresent(Subscribe.class) || method.isBridge()
+					|| method.isSynthetic())
+				{
+					continue;
+				}
+				validate(method);
+				methods.putIfAbsent(
+					method.getName() + "(" + method.getParameterTypes()[0].getName() + ")", method);
+			}
+		}
+		final List<SubscriberMethod> subscriberMethods = new ArrayList<>(methods.size());
+		for (final Method method : methods.values())
+		{
+			subscriberMethods.add(new SubscriberMethod(method.getParameterTypes()[0],
+				invokerOf(method), method.toGenericString()));
+		}
+		return subscriberMethods.toArray(new SubscriberMethod[0]);
+	}
+
+	/**
+	 * Validates the signature of the given subscriber method
+	 *
+	 * @param method
+	 *            the method
+	 * @throws IllegalArgumentException
+	 *             if the method is static or has not exactly one reference parameter
+	 */
+	private static void validate(final Method method)
+	{
+		if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1
+			|| method.getParameterTypes()[0].isPrimitive())
+		{
+			throw new IllegalArgumentException("The method " + method.toGenericString()
+				+ " is annotated with @Subscribe but is not an instance method with exactly one"
+				+ " reference parameter");
+		}
+	}
+
+	/**
+	 * Creates the invoker for the given method
+	 *
+	 * @param method
+	 *            the method
+	 * @return the invoker that calls the method on a subscriber with an event
+	 * @throws IllegalArgumentException
+	 *             if the method cannot be accessed
+	 */
+	@SuppressWarnings("unchecked")
+	private static BiConsumer<Object, Object> invokerOf(final Method method)
+	{
+		final Class<?> declaringClass = method.getDeclaringClass();
+		SubscriberMethod.class.getModule().addReads(declaringClass.getModule());
+		try
+		{
+			final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(declaringClass,
+				MethodHandles.lookup());
+			final MethodHandle handle = lookup.unreflect(method);
+			try
+			{
+				final CallSite callSite = LambdaMetafactory.metafactory(lookup, "accept",
+					MethodType.methodType(BiConsumer.class),
+					MethodType.methodType(void.class, Object.class, Object.class), handle,
+					MethodType.methodType(void.class, declaringClass, method.getParameterTypes()[0]));
+				return (BiConsumer<Object, Object>)callSite.getTarget().invokeExact();
+			}
+			catch (final LambdaConversionException exception)
+			{
+				return handleInvoker(handle);
+			}
+		}
+		catch (final IllegalAccessException exception)
+		{
+			return publicInvokerOf(method, exception);
+		}
+		catch (final RuntimeException | Error exception)
+		{
+			throw exception;
+		}
+		catch (final Throwable throwable)
+		{
+			throw new IllegalStateException(
+				"Could not create the invoker of " + method.toGenericString(), throwable);
+		}
+	}
+
+	/**
+	 * Creates an invoker for a public method of a class that cannot be accessed with full
+	 * privileges
+	 *
+	 * @param method
+	 *            the method
+	 * @param cause
+	 *            the reason why the full privilege access failed
+	 * @return the invoker that calls the method over a method handle
+	 * @throws IllegalArgumentException
+	 *             if the method cannot be accessed at all
+	 */
+	private static BiConsumer<Object, Object> publicInvokerOf(final Method method,
+		final IllegalAccessException cause)
+	{
+		try
+		{
+			return handleInvoker(MethodHandles.publicLookup().unreflect(method));
+		}
+		catch (final IllegalAccessException exception)
+		{
+			final IllegalArgumentException failure = new IllegalArgumentException(
+				"The subscriber method " + method.toGenericString()
+					+ " is not accessible, open its package or make it public",
+				exception);
+			failure.addSuppressed(cause);
+			throw failure;
+		}
+	}
+
+	/**
+	 * Creates an invoker that calls the given method handle
+	 *
+	 * @param handle
+	 *            the method handle of the subscriber method
+	 * @return the invoker that calls the method handle
+	 */
+	private static BiConsumer<Object, Object> handleInvoker(final MethodHandle handle)
+	{
+		final MethodHandle generic = handle.asType(
+			MethodType.methodType(void.class, Object.class, Object.class));
+		return (subscriber, event) -> {
+			try
+			{
+				generic.invokeExact(subscriber, event);
+			}
+			catch (final RuntimeException | Error exception)
+			{
+				throw exception;
+			}
+			catch (final Throwable throwable)
+			{
+				throw new IllegalStateException(throwable);
+			}
+		};
+	}
+
+}
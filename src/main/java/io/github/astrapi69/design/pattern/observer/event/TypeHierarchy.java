@@ -0,0 +1,121 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.event;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The class {@link TypeHierarchy} flattens the type hierarchy of a class into an array of the class
+ * itself, its superclasses and all interfaces it implements The flattened hierarchy is computed
+ * once per class and cached in a {@link ClassValue}, so resolving it on every event needs no
+ * reflection
+ *
+ * <p>
+ * The array starts with the class and its superclasses from the most specific one, followed by the
+ * interfaces in the order they are declared, and ends with {@link Object}
+ * </p>
+ */
+final class TypeHierarchy
+{
+
+	/** The cache of the flattened hierarchy per class */
+	private static final ClassValue<Class<?>[]> HIERARCHIES = new ClassValue<>()
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected Class<?>[] computeValue(final Class<?> type)
+		{
+			return flatten(type);
+		}
+	};
+
+	/**
+	 * Private constructor, this class holds only static methods
+	 */
+	private TypeHierarchy()
+	{
+	}
+
+	/**
+	 * Gets the flattened hierarchy of the given class The returned array is shared and must not be
+	 * modified
+	 *
+	 * @param type
+	 *            the class
+	 * @return the class, its superclasses and all its interfaces
+	 */
+	static Class<?>[] of(final Class<?> type)
+	{
+		return HIERARCHIES.get(type);
+	}
+
+	/**
+	 * Flattens the hierarchy of the given class
+	 *
+	 * @param type
+	 *            the class
+	 * @return the class, its superclasses and all its interfaces without duplicates
+	 */
+	private static Class<?>[] flatten(final Class<?> type)
+	{
+		final Set<Class<?>> classes = new LinkedHashSet<>();
+		for (Class<?> current = type; current != null
+			&& current != Object.class; current = current.getSuperclass())
+		{
+			classes.add(current);
+		}
+		final Set<Class<?>> interfaces = new LinkedHashSet<>();
+		for (final Class<?> current : classes)
+		{
+			addInterfaces(current, interfaces);
+		}
+		classes.addAll(interfaces);
+		classes.add(Object.class);
+		return classes.toArray(new Class<?>[0]);
+	}
+
+	/**
+	 * Adds the interfaces of the given class and their superinterfaces
+	 *
+	 * @param type
+	 *            the class or interface
+	 * @param interfaces
+	 *            the set that collects the interfaces
+	 */
+	private static void addInterfaces(final Class<?> type, final Set<Class<?>> interfaces)
+	{
+		for (final Class<?> current : type.getInterfaces())
+		{
+			if (interfaces.add(current))
+			{
+				addInterfaces(current, interfaces);
+			}
+		}
+	}
+
+}
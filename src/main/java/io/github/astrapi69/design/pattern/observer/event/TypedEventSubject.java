@@ -0,0 +1,218 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.astrapi69.design.pattern.observer.registry.CombinedSnapshot;
+import io.github.astrapi69.design.pattern.observer.registry.ObserverRegistry;
+import lombok.NonNull;
+
+/**
+ * The class {@link TypedEventSubject} is an {@link EventSubject} that routes every event to the
+ * listeners that subscribed for the class of the event source, one of its superclasses or one of
+ * its interfaces One typed subject can so replace many event subjects that serve one event type
+ * each
+ *
+ * <p>
+ * The type hierarchy of every source class is flattened once and cached, so routing an event costs
+ * one walk over this array with a hash lookup per type and no reflection A listener that subscribed
+ * for several types of the same hierarchy receives the event once per type Listeners that are added
+ * with {@link #add(EventListener)} still receive every event
+ * </p>
+ *
+ * @param <T>
+ *            the generic type of the source object
+ */
+public class TypedEventSubject<T> extends EventSubject<T>
+{
+
+	/** The listeners by the type they subscribed for */
+	private final Map<Class<?>, ObserverRegistry<EventListener<?>>> typedListeners = new ConcurrentHashMap<>();
+
+	/** The concatenation of the added and the subscribed listeners of the last event */
+	private final CombinedSnapshot<EventListener<T>> notified = new CombinedSnapshot<>();
+
+	/**
+	 * Instantiates a new {@link TypedEventSubject} with no initial source
+	 */
+	public TypedEventSubject()
+	{
+		this(null);
+	}
+
+	/**
+	 * Instantiates a new {@link TypedEventSubject} with the given initial source
+	 *
+	 * @param source
+	 *            the initial source object
+	 */
+	public TypedEventSubject(final T source)
+	{
+		super(source);
+	}
+
+	/**
+	 * Subscribes the given listener for all events whose source is an instance of the given type
+	 *
+	 * @param <E>
+	 *            the generic type of the event sources
+	 * @param type
+	 *            the class, superclass or interface of the event sources
+	 * @param eventListener
+	 *            the event listener
+	 * @return true if the listener was subscribed, false if it was already subscribed for the type
+	 */
+	public synchronized <E extends T> boolean subscribe(final @NonNull Class<E> type,
+		final @NonNull EventListener<? super E> eventListener)
+	{
+		return typedListeners.computeIfAbsent(type, t -> new ObserverRegistry<>())
+			.add(eventListener);
+	}
+
+	/**
+	 * Unsubscribes the given listener from the events whose source is an instance of the given type
+	 *
+	 * @param type
+	 *            the type the listener subscribed for
+	 * @param eventListener
+	 *            the event listener
+	 * @return true if the listener was unsubscribed
+	 */
+	public synchronized boolean unsubscribe(final @NonNull Class<? extends T> type,
+		final EventListener<?> eventListener)
+	{
+		final ObserverRegistry<EventListener<?>> listeners = typedListeners.get(type);
+		if (listeners == null || !listeners.remove(eventListener))
+		{
+			return false;
+		}
+		if (listeners.isEmpty())
+		{
+			typedListeners.remove(type);
+		}
+		return true;
+	}
+
+	/**
+	 * Fires the events to the listeners that were added with the whole batch and then to the
+	 * listeners that subscribed for a type of each source of the batch
+	 *
+	 * @param sources
+	 *            the source objects that the events relate to in order
+	 */
+	@Override
+	public synchronized void fireEvents(final @NonNull Collection<T> sources)
+	{
+		super.fireEvents(sources);
+		if (typedListeners.isEmpty())
+		{
+			return;
+		}
+		for (final T source : sources)
+		{
+			route(source);
+		}
+	}
+
+	/**
+	 * Gets the listeners that were added followed by the listeners that subscribed for a type of
+	 * the given source, so all of them are notified in one dispatch
+	 *
+	 * @param listeners
+	 *            the snapshot of the listeners that were added
+	 * @param source
+	 *            the source object that the event relates to
+	 * @return the listeners to notify in order
+	 */
+	@Override
+	protected List<EventListener<T>> listenersOf(final List<EventListener<T>> listeners,
+		final T source)
+	{
+		return notified.of(listeners, getListeners(source));
+	}
+
+	/**
+	 * Gets the listeners that subscribed for a type of the given source
+	 *
+	 * @param source
+	 *            the source object
+	 * @return the listeners in the order of the type hierarchy of the source
+	 */
+	@SuppressWarnings("unchecked")
+	public List<EventListener<T>> getListeners(final T source)
+	{
+		if (source == null || typedListeners.isEmpty())
+		{
+			return List.of();
+		}
+		List<?> single = List.of();
+		List<EventListener<T>> matching = null;
+		for (final Class<?> type : TypeHierarchy.of(source.getClass()))
+		{
+			final ObserverRegistry<EventListener<?>> listeners = typedListeners.get(type);
+			if (listeners == null)
+			{
+				continue;
+			}
+			final List<?> typed = listeners.getObservers();
+			if (matching != null)
+			{
+				matching.addAll((List<EventListener<T>>)typed);
+			}
+			else if (single.isEmpty())
+			{
+				single = typed;
+			}
+			else if (!typed.isEmpty())
+			{
+				matching = new ArrayList<>((List<EventListener<T>>)single);
+				matching.addAll((List<EventListener<T>>)typed);
+			}
+		}
+		return matching != null ? matching : (List<EventListener<T>>)single;
+	}
+
+	/**
+	 * Notifies the listeners that subscribed for a type of the given source in one
+	 * {@link #dispatch(List, java.util.function.BiConsumer, Object)}
+	 *
+	 * @param source
+	 *            the source object
+	 */
+	private void route(final T source)
+	{
+		final List<EventListener<T>> matching = getListeners(source);
+		if (!matching.isEmpty())
+		{
+			dispatch(matching, EventListener::onEvent, source);
+		}
+	}
+
+}
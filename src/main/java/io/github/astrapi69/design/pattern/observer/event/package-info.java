@@ -20,6 +20,21 @@
  * <li>{@link io.github.astrapi69.design.pattern.observer.event.EventSubject} - A concrete
  * implementation of {@link io.github.astrapi69.design.pattern.observer.event.EventSource}, which
  * manages a collection of event listeners and notifies them when an event occurs</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.event.RingBufferEventSubject} - An
+ * implementation of {@link io.github.astrapi69.design.pattern.observer.event.EventSource} that hands
+ * events to its listeners over a preallocated ring buffer</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.event.KeyedEventSubject} - An
+ * {@link io.github.astrapi69.design.pattern.observer.event.EventSubject} that routes every event
+ * only to the listeners that subscribed for the key of its source</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.event.TypedEventSubject} - An
+ * {@link io.github.astrapi69.design.pattern.observer.event.EventSubject} that routes every event to
+ * the listeners that subscribed for the class, a superclass or an interface of its source</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.event.EventBus} - A
+ * {@link io.github.astrapi69.design.pattern.observer.event.TypedEventSubject} that delivers posted events
+ * to the methods of its subscribers that are annotated with
+ * {@link io.github.astrapi69.design.pattern.observer.event.Subscribe}</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.event.Subscribe} - Marks a method as
+ * subscriber of an {@link io.github.astrapi69.design.pattern.observer.event.EventBus}</li>
  * </ul>
  *
  * <p>
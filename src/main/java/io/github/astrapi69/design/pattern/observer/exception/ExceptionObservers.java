@@ -24,13 +24,20 @@
  */
 package io.github.astrapi69.design.pattern.observer.exception;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import io.github.astrapi69.design.pattern.observer.metrics.DispatchMetrics;
+import io.github.astrapi69.design.pattern.observer.registry.ObserverRegistry;
+
 /**
  * The class {@link ExceptionObservers} is a singleton that manages a list of
  * {@link ExceptionListener} objects It allows classes to register and unregister for exception
  * events, and notifies registered listeners when an exception event occurs
+ *
+ * <p>
+ * The listeners are kept in an {@link ObserverRegistry}, so exception events can be fired from the
+ * background threads of the dispatchers while listeners are added or removed
+ * </p>
  */
 public class ExceptionObservers
 {
@@ -38,8 +45,11 @@ public class ExceptionObservers
 	/** The single instance of this class */
 	private static ExceptionObservers instance = null;
 
-	/** The list of registered exception listeners */
-	protected List<ExceptionListener> exceptionListeners = new ArrayList<>();
+	/** The registry of the registered exception listeners */
+	private final ObserverRegistry<ExceptionListener> exceptionListeners = new ObserverRegistry<>();
+
+	/** The metrics that record the fired exception events, null if the events are not recorded */
+	private volatile DispatchMetrics metrics;
 
 	/**
 	 * Instantiates a new {@code ExceptionObservers} object This constructor is private to enforce
@@ -84,16 +94,44 @@ public class ExceptionObservers
 	 * @param event
 	 *            the exception event to be fired
 	 */
-	void fireExceptionEvent(final ExceptionEvent event)
+	public void fireExceptionEvent(final ExceptionEvent event)
 	{
-		final int listenerSize = exceptionListeners.size();
+		final List<ExceptionListener> listeners = exceptionListeners.getObservers();
+		final DispatchMetrics metrics = this.metrics;
+		if (metrics != null)
+		{
+			metrics.dispatch(listeners, ExceptionListener::onException, event);
+			return;
+		}
+		final int listenerSize = listeners.size();
 		for (int i = 0; i < listenerSize; i++)
 		{
-			final ExceptionListener lis = exceptionListeners.get(i);
+			final ExceptionListener lis = listeners.get(i);
 			lis.onException(event);
 		}
 	}
 
+	/**
+	 * Gets the metrics that record the fired exception events
+	 *
+	 * @return the metrics, or null if the exception events are not recorded
+	 */
+	public DispatchMetrics getMetrics()
+	{
+		return metrics;
+	}
+
+	/**
+	 * Sets the metrics that record the fired exception events
+	 *
+	 * @param metrics
+	 *            the new metrics, or null to stop recording
+	 */
+	public void setMetrics(final DispatchMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
 	/**
 	 * Removes the specified exception listener from the list of listeners This method allows
 	 * classes to unregister for exception events
@@ -0,0 +1,312 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.flow;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * The class {@link BufferedSubscription} holds the values of one subscriber of a
+ * {@link SourcePublisher} until they are requested Values can be offered from any thread, the
+ * signals to the subscriber are serialized over a work in progress counter and are emitted on the
+ * thread that offers a value or requests more values
+ *
+ * @param <T>
+ *            the generic type of the values
+ */
+final class BufferedSubscription<T> implements Flow.Subscription
+{
+
+	/** The marker for an empty conflation slot */
+	private static final Object EMPTY = new Object();
+
+	/** The subscriber that receives the values */
+	private final Flow.Subscriber<? super T> subscriber;
+
+	/** The strategy for values that are not yet requested */
+	private final BackpressureStrategy strategy;
+
+	/** The maximum number of buffered values */
+	private final int capacity;
+
+	/** The action that detaches this subscription from its publisher when it is cancelled */
+	private final Consumer<? super BufferedSubscription<T>> onCancel;
+
+	/** The buffered values of the strategies {@link BackpressureStrategy#BUFFER} and DROP */
+	private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+
+	/** The number of buffered values */
+	private final AtomicInteger queued = new AtomicInteger();
+
+	/** The latest value of the strategy {@link BackpressureStrategy#CONFLATE} */
+	private final AtomicReference<Object> latest = new AtomicReference<>(EMPTY);
+
+	/** The number of requested and not yet delivered values */
+	private final AtomicLong requested = new AtomicLong();
+
+	/** The counter that serializes the signals to the subscriber */
+	private final AtomicInteger workInProgress = new AtomicInteger();
+
+	/** Flag that indicates if this subscription is cancelled or terminated */
+	private volatile boolean cancelled;
+
+	/** Flag that indicates if the publisher has completed */
+	private volatile boolean done;
+
+	/** The failure that terminates this subscription, null if none occurred */
+	private volatile Throwable failure;
+
+	/**
+	 * Instantiates a new {@link BufferedSubscription}
+	 *
+	 * @param subscriber
+	 *            the subscriber that receives the values
+	 * @param strategy
+	 *            the strategy for values that are not yet requested
+	 * @param capacity
+	 *            the maximum number of buffered values
+	 * @param onCancel
+	 *            the action that detaches this subscription from its publisher
+	 */
+	BufferedSubscription(final Flow.Subscriber<? super T> subscriber,
+		final BackpressureStrategy strategy, final int capacity,
+		final Consumer<? super BufferedSubscription<T>> onCancel)
+	{
+		this.subscriber = subscriber;
+		this.strategy = strategy;
+		this.capacity = capacity;
+		this.onCancel = onCancel;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void request(final long n)
+	{
+		if (n <= 0)
+		{
+			fail(new IllegalArgumentException("non-positive request of " + n + " values"));
+			return;
+		}
+		requested.accumulateAndGet(n, (current, added) -> {
+			final long sum = current + added;
+			return sum < 0 ? Long.MAX_VALUE : sum;
+		});
+		drain();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void cancel()
+	{
+		if (!cancelled)
+		{
+			cancelled = true;
+			onCancel.accept(this);
+			drain();
+		}
+	}
+
+	/**
+	 * Offers the given value to this subscription according to its backpressure strategy
+	 *
+	 * @param value
+	 *            the value, not null
+	 */
+	void offer(final T value)
+	{
+		if (cancelled)
+		{
+			return;
+		}
+		switch (strategy)
+		{
+			case CONFLATE :
+				latest.set(value);
+				break;
+			case DROP :
+				if (queued.get() >= Math.min(requested.get(), capacity))
+				{
+					return;
+				}
+				queued.incrementAndGet();
+				queue.offer(value);
+				break;
+			default :
+				if (queued.incrementAndGet() > capacity)
+				{
+					queued.decrementAndGet();
+					fail(new IllegalStateException("the buffer of " + capacity
+						+ " values overflowed because the subscriber does not keep up"));
+					return;
+				}
+				queue.offer(value);
+				break;
+		}
+		drain();
+	}
+
+	/**
+	 * Completes this subscription after all buffered values have been delivered
+	 */
+	void complete()
+	{
+		done = true;
+		drain();
+	}
+
+	/**
+	 * Terminates this subscription with the given failure and detaches it from its publisher
+	 *
+	 * @param failure
+	 *            the failure
+	 */
+	private void fail(final Throwable failure)
+	{
+		if (this.failure == null)
+		{
+			this.failure = failure;
+		}
+		onCancel.accept(this);
+		drain();
+	}
+
+	/**
+	 * Delivers as many buffered values as requested and signals a pending termination, only one
+	 * thread at a time runs this loop A subscriber that throws from
+	 * {@link Flow.Subscriber#onNext(Object)} violates the contract of the {@link Flow} API, its
+	 * subscription is cancelled and the failure is signaled to its
+	 * {@link Flow.Subscriber#onError(Throwable)}
+	 */
+	private void drain()
+	{
+		if (workInProgress.getAndIncrement() != 0)
+		{
+			return;
+		}
+		int missed = 1;
+		do
+		{
+			if (cancelled)
+			{
+				clear();
+				return;
+			}
+			final Throwable error = failure;
+			if (error != null)
+			{
+				cancelled = true;
+				clear();
+				subscriber.onError(error);
+				return;
+			}
+			final long demand = requested.get();
+			long emitted = 0;
+			while (emitted != demand && !cancelled)
+			{
+				final T value = poll();
+				if (value == null)
+				{
+					break;
+				}
+				try
+				{
+					subscriber.onNext(value);
+				}
+				catch (final RuntimeException exception)
+				{
+					cancelled = true;
+					onCancel.accept(this);
+					clear();
+					subscriber.onError(exception);
+					return;
+				}
+				emitted++;
+			}
+			if (emitted != 0 && demand != Long.MAX_VALUE)
+			{
+				requested.addAndGet(-emitted);
+			}
+			if (!cancelled && done && isEmpty())
+			{
+				cancelled = true;
+				subscriber.onComplete();
+				return;
+			}
+			missed = workInProgress.addAndGet(-missed);
+		}
+		while (missed != 0);
+	}
+
+	/**
+	 * Removes the oldest buffered value
+	 *
+	 * @return the oldest buffered value, or null if none is buffered
+	 */
+	@SuppressWarnings("unchecked")
+	private T poll()
+	{
+		if (strategy == BackpressureStrategy.CONFLATE)
+		{
+			final Object value = latest.getAndSet(EMPTY);
+			return value != EMPTY ? (T)value : null;
+		}
+		final T value = queue.poll();
+		if (value != null)
+		{
+			queued.decrementAndGet();
+		}
+		return value;
+	}
+
+	/**
+	 * Checks if no value is buffered
+	 *
+	 * @return true if no value is buffered
+	 */
+	private boolean isEmpty()
+	{
+		return strategy == BackpressureStrategy.CONFLATE ? latest.get() == EMPTY : queue.isEmpty();
+	}
+
+	/**
+	 * Removes all buffered values
+	 */
+	private void clear()
+	{
+		queue.clear();
+		queued.set(0);
+		latest.set(EMPTY);
+	}
+
+}
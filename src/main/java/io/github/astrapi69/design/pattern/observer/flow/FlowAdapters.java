@@ -0,0 +1,209 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.flow;
+
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import io.github.astrapi69.design.pattern.observer.api.Subject;
+import io.github.astrapi69.design.pattern.observer.chat.listener.MessageListener;
+import io.github.astrapi69.design.pattern.observer.chat.listener.MessageSource;
+import io.github.astrapi69.design.pattern.observer.event.EventListener;
+import io.github.astrapi69.design.pattern.observer.event.EventSource;
+import lombok.NonNull;
+
+/**
+ * The class {@link FlowAdapters} connects subjects, event sources and message sources with the
+ * {@link Flow} API of the JDK The publishers respect the demand of their subscribers and apply a
+ * {@link BackpressureStrategy} to the values that were not yet requested, the subscribers request
+ * the values of a publisher in batches and forward them to their target
+ */
+public final class FlowAdapters
+{
+
+	/**
+	 * Private constructor to prevent instantiation
+	 */
+	private FlowAdapters()
+	{
+	}
+
+	/**
+	 * Creates a publisher of the observables of the given subject
+	 *
+	 * @param <T>
+	 *            the generic type of the observable object
+	 * @param subject
+	 *            the subject
+	 * @param strategy
+	 *            the strategy for values that are not yet requested
+	 * @param capacity
+	 *            the maximum number of buffered values per subscription
+	 * @return the new publisher that is registered as observer of the subject
+	 */
+	public static <T> SourcePublisher<T> fromSubject(
+		final @NonNull Subject<T, ? super Observer<T>> subject,
+		final @NonNull BackpressureStrategy strategy, final int capacity)
+	{
+		return new SourcePublisher<>(strategy, capacity, publish -> {
+			final Observer<T> observer = publish::accept;
+			subject.add(observer);
+			return () -> subject.remove(observer);
+		});
+	}
+
+	/**
+	 * Creates a publisher of the observables of the given subject whose observers have their own
+	 * type, for instance the chat room users of a
+	 * {@link io.github.astrapi69.design.pattern.observer.chat.ChatRoom} The given factory wraps the
+	 * observer that feeds the publisher into an observer of the type of the subject
+	 *
+	 * @param <T>
+	 *            the generic type of the observable object
+	 * @param <O>
+	 *            the generic type of the observers of the subject
+	 * @param subject
+	 *            the subject
+	 * @param observerFactory
+	 *            the factory that wraps the given observer into an observer of the subject
+	 * @param strategy
+	 *            the strategy for values that are not yet requested
+	 * @param capacity
+	 *            the maximum number of buffered values per subscription
+	 * @return the new publisher that is registered as observer of the subject
+	 */
+	public static <T, O extends Observer<T>> SourcePublisher<T> fromSubject(
+		final @NonNull Subject<T, O> subject,
+		final @NonNull Function<? super Observer<T>, ? extends O> observerFactory,
+		final @NonNull BackpressureStrategy strategy, final int capacity)
+	{
+		return new SourcePublisher<>(strategy, capacity, publish -> {
+			final Observer<T> forwarding = publish::accept;
+			final O observer = observerFactory.apply(forwarding);
+			subject.add(observer);
+			return () -> subject.remove(observer);
+		});
+	}
+
+	/**
+	 * Creates a publisher of the events of the given event source
+	 *
+	 * @param <T>
+	 *            the generic type of the source object
+	 * @param eventSource
+	 *            the event source
+	 * @param strategy
+	 *            the strategy for values that are not yet requested
+	 * @param capacity
+	 *            the maximum number of buffered values per subscription
+	 * @return the new publisher that is registered as listener of the event source
+	 */
+	public static <T> SourcePublisher<T> fromEventSource(final @NonNull EventSource<T> eventSource,
+		final @NonNull BackpressureStrategy strategy, final int capacity)
+	{
+		return new SourcePublisher<>(strategy, capacity, publish -> {
+			final EventListener<T> listener = publish::accept;
+			eventSource.add(listener);
+			return () -> eventSource.remove(listener);
+		});
+	}
+
+	/**
+	 * Creates a publisher of the messages of the given message source
+	 *
+	 * @param <T>
+	 *            the generic type of the message object
+	 * @param messageSource
+	 *            the message source
+	 * @param strategy
+	 *            the strategy for values that are not yet requested
+	 * @param capacity
+	 *            the maximum number of buffered values per subscription
+	 * @return the new publisher that is registered as listener of the message source
+	 */
+	public static <T> SourcePublisher<T> fromMessageSource(
+		final @NonNull MessageSource<T> messageSource, final @NonNull BackpressureStrategy strategy,
+		final int capacity)
+	{
+		return new SourcePublisher<>(strategy, capacity, publish -> {
+			final MessageListener<T> listener = publish::accept;
+			messageSource.add(listener);
+			return () -> messageSource.remove(listener);
+		});
+	}
+
+	/**
+	 * Creates a subscriber that sets every received value as observable of the given subject
+	 *
+	 * @param <T>
+	 *            the generic type of the observable object
+	 * @param subject
+	 *            the subject
+	 * @param batchSize
+	 *            the number of values that are requested at once
+	 * @return the new subscriber
+	 */
+	public static <T> ForwardingSubscriber<T> toSubject(final @NonNull Subject<T, ?> subject,
+		final int batchSize)
+	{
+		return new ForwardingSubscriber<>(subject::setObservable, batchSize);
+	}
+
+	/**
+	 * Creates a subscriber that fires every received value as event of the given event source
+	 *
+	 * @param <T>
+	 *            the generic type of the source object
+	 * @param eventSource
+	 *            the event source
+	 * @param batchSize
+	 *            the number of values that are requested at once
+	 * @return the new subscriber
+	 */
+	public static <T> ForwardingSubscriber<T> toEventSource(
+		final @NonNull EventSource<T> eventSource, final int batchSize)
+	{
+		return new ForwardingSubscriber<>(eventSource::fireEvent, batchSize);
+	}
+
+	/**
+	 * Creates a subscriber that fires every received value as message of the given message source
+	 *
+	 * @param <T>
+	 *            the generic type of the message object
+	 * @param messageSource
+	 *            the message source
+	 * @param batchSize
+	 *            the number of values that are requested at once
+	 * @return the new subscriber
+	 */
+	public static <T> ForwardingSubscriber<T> toMessageSource(
+		final @NonNull MessageSource<T> messageSource, final int batchSize)
+	{
+		return new ForwardingSubscriber<>(messageSource::fireMessage, batchSize);
+	}
+
+}
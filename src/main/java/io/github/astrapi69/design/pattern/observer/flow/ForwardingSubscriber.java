@@ -0,0 +1,148 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.flow;
+
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link ForwardingSubscriber} is a {@link Flow.Subscriber} that forwards every received
+ * value to a subject, an event source or a message source It requests the values in batches, so at
+ * most one batch of values is outstanding and the upstream publisher is never asked for more values
+ * than the target has consumed
+ *
+ * @param <T>
+ *            the generic type of the received values
+ */
+public class ForwardingSubscriber<T> implements Flow.Subscriber<T>
+{
+
+	/** The target that receives the values */
+	private final Consumer<? super T> target;
+
+	/** The number of values that are requested at once */
+	@Getter
+	private final int batchSize;
+
+	/** The number of received values after which the consumed values are requested again */
+	private final int replenishThreshold;
+
+	/** The subscription of the upstream publisher, null until subscribed */
+	private volatile Flow.Subscription subscription;
+
+	/** The number of values received since the last request */
+	private int received;
+
+	/** The failure that terminated the upstream publisher, null if none occurred */
+	@Getter
+	private volatile Throwable failure;
+
+	/** Flag that indicates if the upstream publisher has completed */
+	@Getter
+	private volatile boolean completed;
+
+	/**
+	 * Instantiates a new {@link ForwardingSubscriber}
+	 *
+	 * @param target
+	 *            the target that receives the values
+	 * @param batchSize
+	 *            the number of values that are requested at once
+	 */
+	public ForwardingSubscriber(final @NonNull Consumer<? super T> target, final int batchSize)
+	{
+		if (batchSize < 1)
+		{
+			throw new IllegalArgumentException("batchSize must be positive but was " + batchSize);
+		}
+		this.target = target;
+		this.batchSize = batchSize;
+		this.replenishThreshold = Math.max(1, batchSize / 2);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onSubscribe(final @NonNull Flow.Subscription subscription)
+	{
+		if (this.subscription != null)
+		{
+			subscription.cancel();
+			return;
+		}
+		this.subscription = subscription;
+		subscription.request(batchSize);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onNext(final T item)
+	{
+		target.accept(item);
+		if (++received >= replenishThreshold)
+		{
+			final int consumed = received;
+			received = 0;
+			subscription.request(consumed);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onError(final Throwable throwable)
+	{
+		failure = throwable;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onComplete()
+	{
+		completed = true;
+	}
+
+	/**
+	 * Cancels the subscription of the upstream publisher
+	 */
+	public void cancel()
+	{
+		final Flow.Subscription current = subscription;
+		if (current != null)
+		{
+			current.cancel();
+		}
+	}
+
+}
@@ -0,0 +1,160 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.flow;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link SourcePublisher} is a {@link Flow.Publisher} that publishes the values of a
+ * subject, an event source or a message source It is registered as a listener at its source when it
+ * is created, and every value of the source is offered to each subscription Subscribers receive
+ * values only as far as they have requested them, the {@link BackpressureStrategy} decides what
+ * happens with the values in between
+ *
+ * <p>
+ * Because the reactive streams specification does not allow null values, null observables of the
+ * source are not published Closing the publisher removes it from its source and completes every
+ * subscription after its buffered values have been delivered
+ * </p>
+ *
+ * @param <T>
+ *            the generic type of the published values
+ */
+public class SourcePublisher<T> implements Flow.Publisher<T>, AutoCloseable
+{
+
+	/** The strategy for values that are not yet requested */
+	@Getter
+	private final BackpressureStrategy strategy;
+
+	/** The maximum number of buffered values per subscription */
+	@Getter
+	private final int capacity;
+
+	/** The active subscriptions */
+	private final List<BufferedSubscription<T>> subscriptions = new CopyOnWriteArrayList<>();
+
+	/** The action that removes this publisher from its source */
+	private final Runnable detach;
+
+	/** Flag that indicates if this publisher is closed */
+	private volatile boolean closed;
+
+	/**
+	 * Instantiates a new {@link SourcePublisher} and registers it at its source
+	 *
+	 * @param strategy
+	 *            the strategy for values that are not yet requested
+	 * @param capacity
+	 *            the maximum number of buffered values per subscription
+	 * @param attach
+	 *            the function that registers the given listener at the source and returns the
+	 *            action that removes it again
+	 */
+	SourcePublisher(final @NonNull BackpressureStrategy strategy, final int capacity,
+		final @NonNull Function<Consumer<T>, Runnable> attach)
+	{
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException("capacity must be positive but was " + capacity);
+		}
+		this.strategy = strategy;
+		this.capacity = capacity;
+		this.detach = attach.apply(this::publish);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void subscribe(final @NonNull Flow.Subscriber<? super T> subscriber)
+	{
+		final BufferedSubscription<T> subscription = new BufferedSubscription<>(subscriber,
+			strategy, capacity, subscriptions::remove);
+		subscriptions.add(subscription);
+		subscriber.onSubscribe(subscription);
+		if (closed)
+		{
+			subscriptions.remove(subscription);
+			subscription.complete();
+		}
+	}
+
+	/**
+	 * Offers the given value to all subscriptions
+	 *
+	 * @param value
+	 *            the value to publish, null values are skipped
+	 */
+	public void publish(final T value)
+	{
+		if (value == null || closed)
+		{
+			return;
+		}
+		for (final BufferedSubscription<T> subscription : subscriptions)
+		{
+			subscription.offer(value);
+		}
+	}
+
+	/**
+	 * Gets the number of active subscriptions
+	 *
+	 * @return the number of active subscriptions
+	 */
+	public int getSubscriberCount()
+	{
+		return subscriptions.size();
+	}
+
+	/**
+	 * Removes this publisher from its source and completes all subscriptions after their buffered
+	 * values have been delivered
+	 */
+	@Override
+	public void close()
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+		detach.run();
+		for (final BufferedSubscription<T> subscription : subscriptions)
+		{
+			subscription.complete();
+		}
+		subscriptions.clear();
+	}
+
+}
@@ -0,0 +1,24 @@
+/**
+ * Provides adapters between the subjects of this library and the {@link java.util.concurrent.Flow}
+ * API of the JDK
+ *
+ * <p>
+ * Publishers deliver the values of a source only as far as their subscribers request them, so
+ * reactive pipelines get real backpressure without any dependency beyond the JDK.
+ * </p>
+ *
+ * <p>
+ * The key classes in this package include:
+ * </p>
+ * <ul>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.flow.FlowAdapters} - Creates publishers
+ * from subjects, event sources and message sources, and subscribers that forward into them</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.flow.SourcePublisher} - A demand aware
+ * publisher of the values of a source</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.flow.ForwardingSubscriber} - A subscriber
+ * that requests values in batches and forwards them to a target</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.flow.BackpressureStrategy} - Decides what
+ * happens with values that were not yet requested</li>
+ * </ul>
+ */
+package io.github.astrapi69.design.pattern.observer.flow;
@@ -0,0 +1,404 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import io.github.astrapi69.design.pattern.observer.dispatch.AsyncDispatcher;
+import io.github.astrapi69.design.pattern.observer.dispatch.Watchdog;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link DispatchMetrics} records how a subject dispatches its values It counts the
+ * publications, keeps the number of notified observers, and records the latency of a whole
+ * publication and the invocation time of every single observer in a {@link LatencyHistogram}
+ * Components with a queue of pending values record its depth as well
+ *
+ * <p>
+ * The metrics are opt in, a subject records them only if an instance is set on it, otherwise it
+ * costs only the check for null The metrics can be exposed over the platform MBean server with
+ * {@link #register()}
+ * </p>
+ */
+public class DispatchMetrics implements DispatchMetricsMXBean
+{
+
+	/** The domain of the object names under which the metrics are registered */
+	public static final String DOMAIN = "io.github.astrapi69.design.pattern.observer";
+
+	/** The name that identifies these metrics */
+	@Getter
+	private final String name;
+
+	/** The histogram of the latencies of whole publications */
+	@Getter
+	private final LatencyHistogram dispatchLatencies = new LatencyHistogram();
+
+	/** The histogram of the invocation times of single observers */
+	@Getter
+	private final LatencyHistogram invocationTimes = new LatencyHistogram();
+
+	/** The number of publications */
+	private final LongAdder publishCount = new LongAdder();
+
+	/** The maximum recorded queue depth */
+	private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0L);
+
+	/** The number of observers that were notified by the last publication */
+	private volatile int observerCount;
+
+	/** The last recorded queue depth */
+	private volatile int queueDepth;
+
+	/** The object name under which these metrics are registered, null if not registered */
+	private ObjectName objectName;
+
+	/**
+	 * Instantiates a new {@link DispatchMetrics} with the given name
+	 *
+	 * @param name
+	 *            the name that identifies these metrics
+	 */
+	public DispatchMetrics(final @NonNull String name)
+	{
+		this.name = name;
+	}
+
+	/**
+	 * Registers these metrics at the platform MBean server under the object name
+	 * {@code io.github.astrapi69.design.pattern.observer:type=DispatchMetrics,name=<name>}
+	 *
+	 * @return this metrics for chaining
+	 * @throws IllegalStateException
+	 *             if the metrics could not be registered
+	 */
+	public synchronized DispatchMetrics register()
+	{
+		if (objectName != null)
+		{
+			return this;
+		}
+		try
+		{
+			final ObjectName candidate = new ObjectName(
+				DOMAIN + ":type=DispatchMetrics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, candidate);
+			objectName = candidate;
+			return this;
+		}
+		catch (final JMException exception)
+		{
+			throw new IllegalStateException("Could not register the metrics " + name, exception);
+		}
+	}
+
+	/**
+	 * Unregisters these metrics from the platform MBean server if they are registered
+	 *
+	 * @throws IllegalStateException
+	 *             if the metrics could not be unregistered
+	 */
+	public synchronized void unregister()
+	{
+		if (objectName == null)
+		{
+			return;
+		}
+		try
+		{
+			final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(objectName))
+			{
+				server.unregisterMBean(objectName);
+			}
+			objectName = null;
+		}
+		catch (final JMException exception)
+		{
+			throw new IllegalStateException("Could not unregister the metrics " + name, exception);
+		}
+	}
+
+	/**
+	 * Invokes the given action for every listener with the given value and records the publication
+	 * with the invocation time of every listener
+	 *
+	 * @param <L>
+	 *            the generic type of the listener
+	 * @param <V>
+	 *            the generic type of the value
+	 * @param listeners
+	 *            the listeners to notify
+	 * @param action
+	 *            the action that notifies a listener with the value
+	 * @param value
+	 *            the value to pass to the listeners
+	 */
+	public <L, V> void dispatch(final List<L> listeners,
+		final BiConsumer<? super L, ? super V> action, final V value)
+	{
+		final int size = listeners.size();
+		final long start = System.nanoTime();
+		long time = start;
+		try
+		{
+			for (int i = 0; i < size; i++)
+			{
+				action.accept(listeners.get(i), value);
+				final long now = System.nanoTime();
+				invocationTimes.record(now - time);
+				time = now;
+			}
+		}
+		finally
+		{
+			recordPublish(size, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Dispatches the given action for every listener asynchronously over the
+	 * {@link AsyncDispatcher} and records the publication when all listeners have been notified
+	 *
+	 * @param <L>
+	 *            the generic type of the listener
+	 * @param listeners
+	 *            the listeners to notify
+	 * @param action
+	 *            the action that notifies a listener
+	 * @param executor
+	 *            the executor that runs the notifications
+	 * @return the future that completes when all listeners have been notified
+	 */
+	public <L> CompletableFuture<Void> dispatchAsync(final List<L> listeners,
+		final Consumer<? super L> action, final Executor executor)
+	{
+		return dispatchAsync(listeners, action, executor, null);
+	}
+
+	/**
+	 * Dispatches the given action for every listener asynchronously over the
+	 * {@link AsyncDispatcher} under the watch of the given watchdog and records the publication
+	 * when all listeners have been notified
+	 *
+	 * @param <L>
+	 *            the generic type of the listener
+	 * @param listeners
+	 *            the listeners to notify
+	 * @param action
+	 *            the action that notifies a listener
+	 * @param executor
+	 *            the executor that runs the notifications
+	 * @param watchdog
+	 *            the watchdog that enforces the timeouts, null if the notifications are not timed
+	 *            out
+	 * @return the future that completes when all listeners have been notified
+	 */
+	public <L> CompletableFuture<Void> dispatchAsync(final List<L> listeners,
+		final Consumer<? super L> action, final Executor executor, final Watchdog watchdog)
+	{
+		final long start = System.nanoTime();
+		return AsyncDispatcher.dispatch(listeners, instrument(action), executor, watchdog)
+			.whenComplete((result, failure) -> recordPublish(listeners.size(),
+				System.nanoTime() - start));
+	}
+
+	/**
+	 * Wraps the given action so that the invocation time of every call is recorded
+	 *
+	 * @param <L>
+	 *            the generic type of the listener
+	 * @param action
+	 *            the action that notifies a listener
+	 * @return the instrumented action
+	 */
+	public <L> Consumer<L> instrument(final @NonNull Consumer<? super L> action)
+	{
+		return listener -> {
+			final long start = System.nanoTime();
+			try
+			{
+				action.accept(listener);
+			}
+			finally
+			{
+				invocationTimes.record(System.nanoTime() - start);
+			}
+		};
+	}
+
+	/**
+	 * Records a publication
+	 *
+	 * @param observerCount
+	 *            the number of notified observers
+	 * @param latencyNanos
+	 *            the latency of the whole publication in nanoseconds
+	 */
+	public void recordPublish(final int observerCount, final long latencyNanos)
+	{
+		publishCount.increment();
+		this.observerCount = observerCount;
+		dispatchLatencies.record(latencyNanos);
+	}
+
+	/**
+	 * Records the invocation time of a single observer
+	 *
+	 * @param nanos
+	 *            the invocation time in nanoseconds
+	 */
+	public void recordInvocation(final long nanos)
+	{
+		invocationTimes.record(nanos);
+	}
+
+	/**
+	 * Records the current depth of the queue of pending values
+	 *
+	 * @param depth
+	 *            the current queue depth
+	 */
+	public void recordQueueDepth(final int depth)
+	{
+		queueDepth = depth;
+		maxQueueDepth.accumulate(depth);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getPublishCount()
+	{
+		return publishCount.sum();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getObserverCount()
+	{
+		return observerCount;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getDispatchLatencyP50()
+	{
+		return dispatchLatencies.getValueAtPercentile(50.0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getDispatchLatencyP99()
+	{
+		return dispatchLatencies.getValueAtPercentile(99.0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getDispatchLatencyMax()
+	{
+		return dispatchLatencies.getMax();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getInvocationTimeP50()
+	{
+		return invocationTimes.getValueAtPercentile(50.0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getInvocationTimeP99()
+	{
+		return invocationTimes.getValueAtPercentile(99.0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getInvocationTimeMax()
+	{
+		return invocationTimes.getMax();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getQueueDepth()
+	{
+		return queueDepth;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getMaxQueueDepth()
+	{
+		return maxQueueDepth.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reset()
+	{
+		publishCount.reset();
+		maxQueueDepth.reset();
+		dispatchLatencies.reset();
+		invocationTimes.reset();
+	}
+
+}
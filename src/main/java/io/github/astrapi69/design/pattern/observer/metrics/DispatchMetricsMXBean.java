@@ -0,0 +1,111 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.metrics;
+
+/**
+ * The interface {@link DispatchMetricsMXBean} is the management interface of a
+ * {@link DispatchMetrics} that is exposed over the platform MBean server All durations are in
+ * nanoseconds
+ */
+public interface DispatchMetricsMXBean
+{
+
+	/**
+	 * Gets the number of publications
+	 *
+	 * @return the number of publications
+	 */
+	long getPublishCount();
+
+	/**
+	 * Gets the number of observers that were notified by the last publication
+	 *
+	 * @return the number of observers of the last publication
+	 */
+	int getObserverCount();
+
+	/**
+	 * Gets the median duration of a whole publication
+	 *
+	 * @return the 50th percentile of the dispatch latency
+	 */
+	long getDispatchLatencyP50();
+
+	/**
+	 * Gets the 99th percentile of the duration of a whole publication
+	 *
+	 * @return the 99th percentile of the dispatch latency
+	 */
+	long getDispatchLatencyP99();
+
+	/**
+	 * Gets the maximum duration of a whole publication
+	 *
+	 * @return the maximum dispatch latency
+	 */
+	long getDispatchLatencyMax();
+
+	/**
+	 * Gets the median duration of the invocation of a single observer
+	 *
+	 * @return the 50th percentile of the invocation time
+	 */
+	long getInvocationTimeP50();
+
+	/**
+	 * Gets the 99th percentile of the duration of the invocation of a single observer
+	 *
+	 * @return the 99th percentile of the invocation time
+	 */
+	long getInvocationTimeP99();
+
+	/**
+	 * Gets the maximum duration of the invocation of a single observer
+	 *
+	 * @return the maximum invocation time
+	 */
+	long getInvocationTimeMax();
+
+	/**
+	 * Gets the last recorded depth of the queue of pending values, if the instrumented component
+	 * has a queue
+	 *
+	 * @return the last recorded queue depth
+	 */
+	int getQueueDepth();
+
+	/**
+	 * Gets the maximum recorded depth of the queue of pending values
+	 *
+	 * @return the maximum recorded queue depth
+	 */
+	long getMaxQueueDepth();
+
+	/**
+	 * Resets all recorded values
+	 */
+	void reset();
+
+}
@@ -0,0 +1,171 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class {@link LatencyHistogram} records durations in nanoseconds into log linear buckets
+ * without any locking Every power of two is divided into sixteen linear sub buckets, so a reported
+ * percentile is at most about six percent above the recorded value, while the whole range of a
+ * long value fits into less than thousand buckets
+ */
+public final class LatencyHistogram
+{
+
+	/** The number of bits of the linear sub buckets in every power of two */
+	private static final int SUB_BUCKET_BITS = 4;
+
+	/** The number of linear sub buckets in every power of two */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/** The number of buckets that cover all positive long values */
+	private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	/** The counts of the recorded values per bucket */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+	/** The number of recorded values */
+	private final LongAdder count = new LongAdder();
+
+	/** The maximum recorded value */
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+	/**
+	 * Records the given duration
+	 *
+	 * @param nanos
+	 *            the duration in nanoseconds, negative durations are recorded as zero
+	 */
+	public void record(final long nanos)
+	{
+		final long value = Math.max(nanos, 0L);
+		buckets.incrementAndGet(indexOf(value));
+		count.increment();
+		max.accumulate(value);
+	}
+
+	/**
+	 * Gets the number of recorded values
+	 *
+	 * @return the number of recorded values
+	 */
+	public long getCount()
+	{
+		return count.sum();
+	}
+
+	/**
+	 * Gets the maximum recorded value
+	 *
+	 * @return the maximum recorded value in nanoseconds
+	 */
+	public long getMax()
+	{
+		return max.get();
+	}
+
+	/**
+	 * Gets the value below or at which the given percentage of the recorded values fall The value
+	 * is the upper bound of the bucket that contains the percentile, but never more than the
+	 * maximum recorded value
+	 *
+	 * @param percentile
+	 *            the percentile between 0 and 100
+	 * @return the value at the given percentile in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(final double percentile)
+	{
+		final long total = getCount();
+		if (total == 0)
+		{
+			return 0L;
+		}
+		final double bounded = Math.min(Math.max(percentile, 0.0), 100.0);
+		final long rank = Math.max(1L, (long)Math.ceil(bounded / 100.0 * total));
+		long seen = 0;
+		for (int index = 0; index < BUCKET_COUNT; index++)
+		{
+			seen += buckets.get(index);
+			if (seen >= rank)
+			{
+				return Math.min(upperBoundOf(index), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Removes all recorded values Values that are recorded concurrently may be partially kept
+	 */
+	public void reset()
+	{
+		for (int index = 0; index < BUCKET_COUNT; index++)
+		{
+			buckets.set(index, 0L);
+		}
+		count.reset();
+		max.reset();
+	}
+
+	/**
+	 * Gets the index of the bucket that holds the given value
+	 *
+	 * @param value
+	 *            the non negative value
+	 * @return the index of the bucket
+	 */
+	private static int indexOf(final long value)
+	{
+		if (value < SUB_BUCKET_COUNT)
+		{
+			return (int)value;
+		}
+		final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		final int shift = exponent - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKET_COUNT + (int)((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+	}
+
+	/**
+	 * Gets the largest value that is recorded into the bucket with the given index
+	 *
+	 * @param index
+	 *            the index of the bucket
+	 * @return the largest value of the bucket
+	 */
+	private static long upperBoundOf(final int index)
+	{
+		if (index < SUB_BUCKET_COUNT)
+		{
+			return index;
+		}
+		final int shift = index / SUB_BUCKET_COUNT - 1;
+		final long lowerBound = (long)(SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+		return lowerBound + (1L << shift) - 1;
+	}
+
+}
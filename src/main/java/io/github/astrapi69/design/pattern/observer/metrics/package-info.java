@@ -0,0 +1,21 @@
+/**
+ * Provides classes for recording how subjects dispatch their values
+ *
+ * <p>
+ * The metrics are opt in and can be exposed over the platform MBean server, a subject without
+ * metrics pays only for a check for null on every publication.
+ * </p>
+ *
+ * <p>
+ * The key classes in this package include:
+ * </p>
+ * <ul>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.metrics.DispatchMetrics} - Records the
+ * publications, observer counts, latencies and queue depths of a subject</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.metrics.DispatchMetricsMXBean} - The
+ * management interface that is exposed over JMX</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.metrics.LatencyHistogram} - A lock free
+ * log linear histogram of durations</li>
+ * </ul>
+ */
+package io.github.astrapi69.design.pattern.observer.metrics;
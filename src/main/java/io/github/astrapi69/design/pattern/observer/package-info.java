@@ -19,6 +19,10 @@
  * <li>{@link io.github.astrapi69.design.pattern.observer.AbstractSubject} - A base class that
  * provides a concrete implementation of the subject interface, managing observers and updating them
  * when changes occur</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.ConflatingSubject} - A subject that
+ * delivers only the latest observable to observers that are still busy with a previous update</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.KeyedSubject} - A subject that routes
+ * every observable only to the observers that subscribed for its key</li>
  * </ul>
  *
  * <p>
@@ -0,0 +1,138 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.primitive;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import io.github.astrapi69.design.pattern.observer.registry.RegistrationMode;
+
+/**
+ * The class {@link BoxingObserver} adapts a generic {@link Observer} to the primitive observers
+ * by boxing every value It is equal to every other adapter of an equal observer, so an adapted
+ * observer can be removed with a new adapter from a primitive subject in the mode
+ * {@link RegistrationMode#EQUALITY}, in the mode {@link RegistrationMode#IDENTITY} only with the
+ * adapter that was added
+ *
+ * <p>
+ * Nobody but the subject references an adapter, so it is rejected by subjects in the mode
+ * {@link RegistrationMode#WEAK} that would drop it at the next garbage collection
+ * </p>
+ */
+final class BoxingObserver implements IntObserver, LongObserver, DoubleObserver
+{
+
+	/** The generic observer that receives the boxed values */
+	private final Observer<?> observer;
+
+	/**
+	 * Instantiates a new {@link BoxingObserver} for the given observer The factory methods of the
+	 * primitive observers ensure that the observer accepts the boxed type of the primitive values
+	 *
+	 * @param observer
+	 *            the generic observer
+	 */
+	BoxingObserver(final Observer<?> observer)
+	{
+		this.observer = observer;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void update(final int observable)
+	{
+		target().update(observable);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void update(final long observable)
+	{
+		target().update(observable);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void update(final double observable)
+	{
+		target().update(observable);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(final Object object)
+	{
+		return object instanceof BoxingObserver
+			&& ((BoxingObserver)object).observer.equals(observer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode()
+	{
+		return observer.hashCode();
+	}
+
+	/**
+	 * Checks that the given observer can be registered with the given registration mode
+	 *
+	 * @param observer
+	 *            the observer to register
+	 * @param registrationMode
+	 *            the registration mode of the subject
+	 * @throws IllegalArgumentException
+	 *             if the observer is an adapter and the subject references its observers only
+	 *             weakly
+	 */
+	static void checkRegistration(final Object observer, final RegistrationMode registrationMode)
+	{
+		if (observer instanceof BoxingObserver && registrationMode == RegistrationMode.WEAK)
+		{
+			throw new IllegalArgumentException("The adapter of the observer "
+				+ ((BoxingObserver)observer).observer + " is only referenced by the subject and"
+				+ " would be garbage collected in the registration mode " + registrationMode);
+		}
+	}
+
+	/**
+	 * Gets the generic observer as observer of objects
+	 *
+	 * @return the generic observer
+	 */
+	@SuppressWarnings("unchecked")
+	private Observer<Object> target()
+	{
+		return (Observer<Object>)observer;
+	}
+
+}
@@ -0,0 +1,79 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.primitive;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import lombok.NonNull;
+
+/**
+ * The interface {@link IntObserver} is an observer of a {@link IntSubject} that receives the
+ * observable as primitive {@code int}, so no value is boxed on a notification
+ */
+@FunctionalInterface
+public interface IntObserver
+{
+
+	/**
+	 * This method is called to notify the observer that the observable value has changed
+	 *
+	 * @param observable
+	 *            the new observable value
+	 */
+	void update(final int observable);
+
+	/**
+	 * Adapts the given observer to a generic {@link Observer} of boxed values, for instance to
+	 * register it at a generic subject A null observable is not a valid {@code int} and fails
+	 * with a {@link NullPointerException}
+	 *
+	 * @param observer
+	 *            the primitive observer
+	 * @return the generic observer that unboxes the observables for the given observer
+	 */
+	static Observer<Integer> toObserver(final @NonNull IntObserver observer)
+	{
+		return observable -> observer.update(observable.intValue());
+	}
+
+	/**
+	 * Adapts the given generic observer to a {@link IntObserver} that boxes every value Adapters of
+	 * equal observers are equal, so in the mode
+	 * {@link io.github.astrapi69.design.pattern.observer.registry.RegistrationMode#EQUALITY} an
+	 * adapted observer can be removed with a new adapter of the same observer, in the mode
+	 * {@link io.github.astrapi69.design.pattern.observer.registry.RegistrationMode#IDENTITY} only
+	 * with the adapter that was added The adapter is only referenced by the subject it is added to,
+	 * so a subject in the mode
+	 * {@link io.github.astrapi69.design.pattern.observer.registry.RegistrationMode#WEAK} rejects it
+	 *
+	 * @param observer
+	 *            the generic observer
+	 * @return the primitive observer that boxes the values for the given observer
+	 */
+	static IntObserver from(final @NonNull Observer<? super Integer> observer)
+	{
+		return new BoxingObserver(observer);
+	}
+
+}
@@ -0,0 +1,188 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.primitive;
+
+import java.util.List;
+
+import io.github.astrapi69.design.pattern.observer.registry.DispatchMode;
+import io.github.astrapi69.design.pattern.observer.registry.ObserverRegistry;
+import io.github.astrapi69.design.pattern.observer.registry.RegistrationMode;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link IntSubject} is a subject for a primitive {@code int} value, for instance
+ * for counters The value is stored and passed to the {@link IntObserver}s without boxing, so a
+ * notification does not allocate any memory
+ *
+ * <p>
+ * Like the {@link io.github.astrapi69.design.pattern.observer.AbstractSubject} the observers are
+ * notified from an immutable snapshot, and the {@link DispatchMode} decides if the notification
+ * holds the monitor of this subject Generic observers are registered with
+ * {@link IntObserver#from(io.github.astrapi69.design.pattern.observer.api.Observer)}
+ * </p>
+ */
+public class IntSubject
+{
+
+	/** The registry of the registered observers */
+	private final ObserverRegistry<IntObserver> observerRegistry;
+
+	/** The mode that decides if observers are notified while the monitor is held */
+	@Getter
+	private final DispatchMode dispatchMode;
+
+	/** The current observable value */
+	@Getter
+	private volatile int observable;
+
+	/**
+	 * Instantiates a new {@link IntSubject} with the initial value zero
+	 */
+	public IntSubject()
+	{
+		this(0);
+	}
+
+	/**
+	 * Instantiates a new {@link IntSubject} with the given initial value
+	 *
+	 * @param observable
+	 *            the initial observable value
+	 */
+	public IntSubject(final int observable)
+	{
+		this(observable, DispatchMode.SYNCHRONIZED, RegistrationMode.EQUALITY);
+	}
+
+	/**
+	 * Instantiates a new {@link IntSubject} with the given initial value, dispatch mode and
+	 * registration mode
+	 *
+	 * @param observable
+	 *            the initial observable value
+	 * @param dispatchMode
+	 *            the mode that decides if observers are notified while the monitor is held
+	 * @param registrationMode
+	 *            the mode that decides if observers are identified by equality or by identity
+	 */
+	public IntSubject(final int observable, final @NonNull DispatchMode dispatchMode,
+		final @NonNull RegistrationMode registrationMode)
+	{
+		this.observable = observable;
+		this.dispatchMode = dispatchMode;
+		this.observerRegistry = new ObserverRegistry<>(registrationMode);
+	}
+
+	/**
+	 * Adds the given observer to the list of observers
+	 *
+	 * @param observer
+	 *            the observer to be added
+	 * @throws IllegalArgumentException
+	 *             if the observer adapts a generic observer and this subject references its
+	 *             observers only weakly
+	 */
+	public void add(final @NonNull IntObserver observer)
+	{
+		BoxingObserver.checkRegistration(observer, observerRegistry.getRegistrationMode());
+		observerRegistry.add(observer);
+	}
+
+	/**
+	 * Removes the given observer from the list of observers
+	 *
+	 * @param observer
+	 *            the observer to be removed
+	 */
+	public void remove(final IntObserver observer)
+	{
+		observerRegistry.remove(observer);
+	}
+
+	/**
+	 * Gets an immutable snapshot of the registered observers
+	 *
+	 * @return the immutable snapshot of the registered observers
+	 */
+	public List<IntObserver> getObservers()
+	{
+		return observerRegistry.getObservers();
+	}
+
+	/**
+	 * Sets the observable value and notifies all observers
+	 *
+	 * @param observable
+	 *            the new observable value
+	 */
+	public void setObservable(final int observable)
+	{
+		if (dispatchMode == DispatchMode.COPY_ON_WRITE)
+		{
+			this.observable = observable;
+			notifyObservers(observable);
+			return;
+		}
+		synchronized (this)
+		{
+			this.observable = observable;
+			notifyObservers(observable);
+		}
+	}
+
+	/**
+	 * Notifies all observers with the current observable value
+	 */
+	public void updateObservers()
+	{
+		if (dispatchMode == DispatchMode.COPY_ON_WRITE)
+		{
+			notifyObservers(observable);
+			return;
+		}
+		synchronized (this)
+		{
+			notifyObservers(observable);
+		}
+	}
+
+	/**
+	 * Notifies all observers of the current snapshot with the given value
+	 *
+	 * @param observable
+	 *            the value to pass to the observers
+	 */
+	protected void notifyObservers(final int observable)
+	{
+		final List<IntObserver> observers = getObservers();
+		final int size = observers.size();
+		for (int i = 0; i < size; i++)
+		{
+			observers.get(i).update(observable);
+		}
+	}
+
+}
@@ -0,0 +1,25 @@
+/**
+ * Provides subjects and observers for primitive values
+ *
+ * <p>
+ * The primitive subjects store and pass their values without boxing, so publishing counters,
+ * prices or timestamps does not produce garbage. Adapters connect the primitive observers with the
+ * generic {@link io.github.astrapi69.design.pattern.observer.api.Observer}.
+ * </p>
+ *
+ * <p>
+ * The key classes in this package include:
+ * </p>
+ * <ul>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.primitive.IntSubject} and
+ * {@link io.github.astrapi69.design.pattern.observer.primitive.IntObserver} - Subject and observer
+ * of an {@code int} value</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.primitive.LongSubject} and
+ * {@link io.github.astrapi69.design.pattern.observer.primitive.LongObserver} - Subject and observer
+ * of a {@code long} value</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.primitive.DoubleSubject} and
+ * {@link io.github.astrapi69.design.pattern.observer.primitive.DoubleObserver} - Subject and
+ * observer of a {@code double} value</li>
+ * </ul>
+ */
+package io.github.astrapi69.design.pattern.observer.primitive;
@@ -0,0 +1,127 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.registry;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link CombinedSnapshot} concatenates two immutable snapshots of observers into one, so
+ * a subject that notifies the observers of two registries can notify them in one dispatch
+ *
+ * <p>
+ * If one of the snapshots is empty, the other one is returned unchanged Otherwise the last
+ * concatenation is cached for the identities of both snapshots, so the same snapshots always give
+ * the same list and a notification that finds the cached list does not allocate The snapshots and
+ * the cached list are only weakly referenced, so the cache never keeps an observer alive and is
+ * rebuilt after a garbage collection has cleared it
+ * </p>
+ *
+ * @param <O>
+ *            the generic type of the observer
+ */
+public final class CombinedSnapshot<O>
+{
+
+	/** The last concatenation, null if none was built yet */
+	private volatile Combination<O> last;
+
+	/**
+	 * Gets the concatenation of the given snapshots
+	 *
+	 * @param first
+	 *            the immutable snapshot whose observers come first
+	 * @param second
+	 *            the immutable snapshot whose observers come second
+	 * @return the immutable concatenation of both snapshots
+	 */
+	public List<O> of(final @NonNull List<O> first, final @NonNull List<O> second)
+	{
+		if (second.isEmpty())
+		{
+			return first;
+		}
+		if (first.isEmpty())
+		{
+			return second;
+		}
+		final Combination<O> current = last;
+		if (current != null && current.first.get() == first && current.second.get() == second)
+		{
+			final List<O> combined = current.combined.get();
+			if (combined != null)
+			{
+				return combined;
+			}
+		}
+		final List<O> combined = new ArrayList<>(first.size() + second.size());
+		combined.addAll(first);
+		combined.addAll(second);
+		final List<O> snapshot = Collections.unmodifiableList(combined);
+		last = new Combination<>(first, second, snapshot);
+		return snapshot;
+	}
+
+	/**
+	 * Holds the weakly referenced snapshots of one concatenation and its result
+	 *
+	 * @param <O>
+	 *            the generic type of the observer
+	 */
+	private static final class Combination<O>
+	{
+
+		/** The snapshot whose observers come first */
+		final WeakReference<List<O>> first;
+
+		/** The snapshot whose observers come second */
+		final WeakReference<List<O>> second;
+
+		/** The concatenation of both snapshots */
+		final WeakReference<List<O>> combined;
+
+		/**
+		 * Instantiates a new {@link Combination}
+		 *
+		 * @param first
+		 *            the snapshot whose observers come first
+		 * @param second
+		 *            the snapshot whose observers come second
+		 * @param combined
+		 *            the concatenation of both snapshots
+		 */
+		Combination(final List<O> first, final List<O> second, final List<O> combined)
+		{
+			this.first = new WeakReference<>(first);
+			this.second = new WeakReference<>(second);
+			this.combined = new WeakReference<>(combined);
+		}
+	}
+
+}
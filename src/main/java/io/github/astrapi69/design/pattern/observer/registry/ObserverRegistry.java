@@ -0,0 +1,539 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.registry;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link ObserverRegistry} holds the registered observers of a subject and publishes them
+ * as an immutable snapshot Mutations are serialized over the monitor of this registry, while the
+ * snapshot that is returned from {@link #getObservers()} can be iterated without any locking, even
+ * if observers are added or removed during the iteration
+ *
+ * <p>
+ * The observers are indexed in a hash table that keeps the insertion order, so adding, removing and
+ * looking up an observer costs constant time An observer is registered at most once, the
+ * {@link RegistrationMode} decides if observers are identified by equality or by identity
+ * </p>
+ *
+ * <p>
+ * The snapshot is rebuilt lazily on the first read after a mutation, so a sequence of mutations
+ * between two notifications costs only one copy of the observers
+ * </p>
+ *
+ * <p>
+ * In the mode {@link RegistrationMode#WEAK} the observers are only weakly referenced, so an
+ * observer that is no longer used elsewhere is garbage collected and its entry is expunged over a
+ * {@link ReferenceQueue} on the next access of this registry The snapshot is then only weakly
+ * cached and rebuilt after a garbage collection has cleared it, so it never keeps an observer alive
+ * and never contains a collected observer
+ * </p>
+ *
+ * @param <O>
+ *            the generic type of the observer
+ */
+public class ObserverRegistry<O> implements Serializable
+{
+
+	/** The serialVersionUID for serialization compatibility */
+	private static final long serialVersionUID = 1L;
+
+	/** The mode that decides how observers are identified */
+	@Getter
+	private final RegistrationMode registrationMode;
+
+	/**
+	 * The registered observers by their key in insertion order, guarded by this registry In the
+	 * mode {@link RegistrationMode#WEAK} the value of an entry is its {@link WeakKey}
+	 */
+	private transient Map<Object, Object> observers = new LinkedHashMap<>();
+
+	/** The queue of the cleared weak keys, null if the observers are strongly referenced */
+	private transient ReferenceQueue<Object> staleKeys;
+
+	/** The published immutable snapshot of the observers, null if it has to be rebuilt */
+	private transient volatile List<O> snapshot;
+
+	/** The weakly cached snapshot in the mode {@link RegistrationMode#WEAK} */
+	private transient volatile Reference<List<O>> weakSnapshot;
+
+	/** The version of the registered observers, guarded by this registry for writing */
+	private transient volatile long version;
+
+	/**
+	 * Instantiates a new {@link ObserverRegistry} that identifies observers by equality
+	 */
+	public ObserverRegistry()
+	{
+		this(RegistrationMode.EQUALITY);
+	}
+
+	/**
+	 * Instantiates a new {@link ObserverRegistry} with the given registration mode
+	 *
+	 * @param registrationMode
+	 *            the mode that decides how observers are identified
+	 */
+	public ObserverRegistry(final @NonNull RegistrationMode registrationMode)
+	{
+		this.registrationMode = registrationMode;
+		this.staleKeys = registrationMode == RegistrationMode.WEAK ? new ReferenceQueue<>() : null;
+	}
+
+	/**
+	 * Adds the given observer to this registry if it is not already registered
+	 *
+	 * @param observer
+	 *            the observer to be added
+	 * @return true if the observer was added
+	 */
+	public synchronized boolean add(final @NonNull O observer)
+	{
+		expungeStaleEntries();
+		if (!register(observer))
+		{
+			return false;
+		}
+		invalidate();
+		return true;
+	}
+
+	/**
+	 * Adds the given observers to this registry
+	 *
+	 * @param observers
+	 *            the observers to be added
+	 * @return true if this registry changed as a result of the call
+	 */
+	public synchronized boolean addAll(final @NonNull Collection<? extends O> observers)
+	{
+		boolean changed = false;
+		for (final O observer : observers)
+		{
+			changed |= add(observer);
+		}
+		return changed;
+	}
+
+	/**
+	 * Removes the given observer from this registry
+	 *
+	 * @param observer
+	 *            the observer to be removed
+	 * @return true if the observer was removed
+	 */
+	public synchronized boolean remove(final Object observer)
+	{
+		expungeStaleEntries();
+		if (observer == null || observers.remove(keyOf(observer)) == null)
+		{
+			return false;
+		}
+		invalidate();
+		return true;
+	}
+
+	/**
+	 * Removes the given observers from this registry
+	 *
+	 * @param observers
+	 *            the observers to be removed
+	 * @return true if this registry changed as a result of the call
+	 */
+	public synchronized boolean removeAll(final @NonNull Collection<?> observers)
+	{
+		boolean changed = false;
+		for (final Object observer : observers)
+		{
+			changed |= remove(observer);
+		}
+		return changed;
+	}
+
+	/**
+	 * Removes all observers from this registry
+	 */
+	public synchronized void clear()
+	{
+		expungeStaleEntries();
+		observers.clear();
+		invalidate();
+	}
+
+	/**
+	 * Checks if the given observer is registered
+	 *
+	 * @param observer
+	 *            the observer to check
+	 * @return true if the observer is registered, otherwise false
+	 */
+	public synchronized boolean contains(final Object observer)
+	{
+		expungeStaleEntries();
+		return observer != null && observers.containsKey(keyOf(observer));
+	}
+
+	/**
+	 * Gets the immutable snapshot of the registered observers in registration order The returned
+	 * list reflects the state of this registry at the time of the call and is not affected by later
+	 * mutations
+	 *
+	 * @return the immutable snapshot of the registered observers
+	 */
+	public List<O> getObservers()
+	{
+		if (staleKeys != null)
+		{
+			return getLiveObservers();
+		}
+		final List<O> current = snapshot;
+		if (current != null)
+		{
+			return current;
+		}
+		return publish();
+	}
+
+	/**
+	 * Gets the version of the registered observers The version changes with every mutation and
+	 * every expunged observer, so snapshots that were taken at the same version contain the same
+	 * observers A cache that is derived from a snapshot can compare the version instead of holding
+	 * the snapshot, which would keep weakly registered observers alive
+	 *
+	 * @return the current version of the registered observers
+	 */
+	public long getVersion()
+	{
+		if (staleKeys != null)
+		{
+			expungeFirstStaleEntry();
+		}
+		return version;
+	}
+
+	/**
+	 * Gets the number of registered observers
+	 *
+	 * @return the number of registered observers
+	 */
+	public int size()
+	{
+		return getObservers().size();
+	}
+
+	/**
+	 * Checks if no observers are registered
+	 *
+	 * @return true if no observers are registered, otherwise false
+	 */
+	public boolean isEmpty()
+	{
+		return getObservers().isEmpty();
+	}
+
+	/**
+	 * Gets the weakly cached snapshot of the observers that are still alive in the mode
+	 * {@link RegistrationMode#WEAK}
+	 *
+	 * @return the immutable snapshot of the observers that are still alive
+	 */
+	private List<O> getLiveObservers()
+	{
+		expungeFirstStaleEntry();
+		final Reference<List<O>> reference = weakSnapshot;
+		final List<O> current = reference != null ? reference.get() : null;
+		if (current != null)
+		{
+			return current;
+		}
+		return publish();
+	}
+
+	/**
+	 * Expunges the entries of the observers that have been garbage collected if the queue of the
+	 * cleared weak keys is not empty, without locking otherwise
+	 */
+	private void expungeFirstStaleEntry()
+	{
+		final Reference<?> staleKey = staleKeys.poll();
+		if (staleKey != null)
+		{
+			synchronized (this)
+			{
+				observers.remove(staleKey);
+				invalidate();
+				expungeStaleEntries();
+			}
+		}
+	}
+
+	/**
+	 * Rebuilds the snapshot if a mutation or a garbage collection has invalidated it
+	 *
+	 * @return the current snapshot
+	 */
+	@SuppressWarnings("unchecked")
+	private synchronized List<O> publish()
+	{
+		if (staleKeys == null)
+		{
+			List<O> current = snapshot;
+			if (current == null)
+			{
+				current = (List<O>)List.copyOf(observers.values());
+				snapshot = current;
+			}
+			return current;
+		}
+		final Reference<List<O>> reference = weakSnapshot;
+		List<O> current = reference != null ? reference.get() : null;
+		if (current == null)
+		{
+			final List<O> alive = new ArrayList<>(observers.size());
+			for (final Object key : observers.values())
+			{
+				final O observer = (O)((WeakKey)key).get();
+				if (observer != null)
+				{
+					alive.add(observer);
+				}
+			}
+			current = List.copyOf(alive);
+			weakSnapshot = new WeakReference<>(current);
+		}
+		return current;
+	}
+
+	/**
+	 * Puts the given observer into the index if it is not already registered, must be called while
+	 * holding the monitor of this registry
+	 *
+	 * @param observer
+	 *            the observer to be registered
+	 * @return true if the observer was registered
+	 */
+	private boolean register(final O observer)
+	{
+		final Object key = staleKeys != null ? new WeakKey(observer, staleKeys) : keyOf(observer);
+		return observers.putIfAbsent(key, staleKeys != null ? key : observer) == null;
+	}
+
+	/**
+	 * Invalidates the published snapshot after a mutation
+	 */
+	private void invalidate()
+	{
+		snapshot = null;
+		weakSnapshot = null;
+		version++;
+	}
+
+	/**
+	 * Removes the entries of the observers that have been garbage collected, must be called while
+	 * holding the monitor of this registry
+	 */
+	private void expungeStaleEntries()
+	{
+		if (staleKeys == null)
+		{
+			return;
+		}
+		boolean expunged = false;
+		for (Reference<?> key; (key = staleKeys.poll()) != null;)
+		{
+			expunged |= observers.remove(key) != null;
+		}
+		if (expunged)
+		{
+			invalidate();
+		}
+	}
+
+	/**
+	 * Writes the observers that are still alive, because weak keys cannot be serialized
+	 *
+	 * @param out
+	 *            the object output stream
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	private void writeObject(final ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+		out.writeObject(new ArrayList<>(publish()));
+	}
+
+	/**
+	 * Reads the observers and registers them again with the registration mode of this registry
+	 *
+	 * @param in
+	 *            the object input stream
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws ClassNotFoundException
+	 *             if the class of a serialized object cannot be found
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		observers = new LinkedHashMap<>();
+		staleKeys = registrationMode == RegistrationMode.WEAK ? new ReferenceQueue<>() : null;
+		for (final O observer : (List<O>)in.readObject())
+		{
+			register(observer);
+		}
+	}
+
+	/**
+	 * Gets the key under which the given observer is indexed
+	 *
+	 * @param observer
+	 *            the observer
+	 * @return the key of the observer
+	 */
+	private Object keyOf(final Object observer)
+	{
+		switch (registrationMode)
+		{
+			case IDENTITY :
+				return new IdentityKey(observer);
+			case WEAK :
+				return new WeakKey(observer, null);
+			default :
+				return observer;
+		}
+	}
+
+	/**
+	 * The key of an observer that is identified by its object identity
+	 */
+	private static final class IdentityKey implements Serializable
+	{
+
+		/** The serialVersionUID for serialization compatibility */
+		private static final long serialVersionUID = 1L;
+
+		/** The observer */
+		private final Object observer;
+
+		/**
+		 * Instantiates a new {@link IdentityKey} for the given observer
+		 *
+		 * @param observer
+		 *            the observer
+		 */
+		IdentityKey(final Object observer)
+		{
+			this.observer = observer;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(final Object object)
+		{
+			return object instanceof IdentityKey && ((IdentityKey)object).observer == observer;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			return System.identityHashCode(observer);
+		}
+	}
+
+	/**
+	 * The key of an observer that is weakly referenced and identified by its object identity A
+	 * cleared key is only equal to itself, so it can still be removed from the index
+	 */
+	private static final class WeakKey extends WeakReference<Object>
+	{
+
+		/** The identity hash code of the observer */
+		private final int hash;
+
+		/**
+		 * Instantiates a new {@link WeakKey} for the given observer
+		 *
+		 * @param observer
+		 *            the observer
+		 * @param queue
+		 *            the queue to enqueue this key when the observer is cleared, null for a lookup
+		 *            key
+		 */
+		WeakKey(final Object observer, final ReferenceQueue<Object> queue)
+		{
+			super(observer, queue);
+			this.hash = System.identityHashCode(observer);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(final Object object)
+		{
+			if (object == this)
+			{
+				return true;
+			}
+			if (!(object instanceof WeakKey))
+			{
+				return false;
+			}
+			final Object observer = get();
+			return observer != null && ((WeakKey)object).get() == observer;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.registry;
+
+/**
+ * The enum {@link RegistrationMode} decides how an {@link ObserverRegistry} identifies the
+ * registered observers when they are added or removed
+ */
+public enum RegistrationMode
+{
+
+	/**
+	 * Observers are identified by {@link Object#equals(Object)} and {@link Object#hashCode()}, so
+	 * an observer can be removed by an equal instance
+	 */
+	EQUALITY,
+
+	/**
+	 * Observers are identified by their object identity, regardless of how they implement
+	 * {@link Object#equals(Object)} and {@link Object#hashCode()}
+	 */
+	IDENTITY,
+
+	/**
+	 * Observers are weakly referenced and identified by their object identity, so an observer that
+	 * is no longer referenced elsewhere is garbage collected and removed automatically Observers
+	 * that are created only for the registration, like lambdas, must be kept referenced by the
+	 * caller or they are removed after the next garbage collection
+	 */
+	WEAK
+
+}
@@ -0,0 +1,331 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.registry;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link ShardedObserverRegistry} is an {@link ObserverRegistry} that hashes the
+ * observers into a fixed number of shards Every shard is an {@link ObserverRegistry} with its own
+ * monitor and snapshot, so observers that fall into different shards are added and removed without
+ * contending for a lock
+ *
+ * <p>
+ * The snapshot that is returned from {@link #getObservers()} is an immutable list that holds the
+ * observers of all shards in the order of the shards It is flattened once when a shard has changed,
+ * so a notification indexes it directly The shards are compared by their version, and in the mode
+ * {@link RegistrationMode#WEAK} the snapshot is only weakly cached, so it never keeps an observer
+ * alive
+ * </p>
+ *
+ * @param <O>
+ *            the generic type of the observer
+ */
+public class ShardedObserverRegistry<O> extends ObserverRegistry<O>
+{
+
+	/** The serialVersionUID for serialization compatibility */
+	private static final long serialVersionUID = 1L;
+
+	/** The shards of this registry */
+	private final List<ObserverRegistry<O>> shards;
+
+	/** The published snapshot of the shards together with the versions it was built from */
+	private transient volatile ShardedSnapshot<O> snapshot;
+
+	/**
+	 * Instantiates a new {@link ShardedObserverRegistry} with the given number of shards that
+	 * identifies observers by equality
+	 *
+	 * @param shardCount
+	 *            the number of shards, rounded up to the next power of two
+	 */
+	public ShardedObserverRegistry(final int shardCount)
+	{
+		this(shardCount, RegistrationMode.EQUALITY);
+	}
+
+	/**
+	 * Instantiates a new {@link ShardedObserverRegistry} with the given number of shards and
+	 * registration mode
+	 *
+	 * @param shardCount
+	 *            the number of shards, rounded up to the next power of two
+	 * @param registrationMode
+	 *            the mode that decides how observers are identified
+	 */
+	public ShardedObserverRegistry(final int shardCount,
+		final @NonNull RegistrationMode registrationMode)
+	{
+		super(registrationMode);
+		if (shardCount < 1)
+		{
+			throw new IllegalArgumentException("shardCount must be positive but was " + shardCount);
+		}
+		final int size = Math.max(1, Integer.highestOneBit(shardCount - 1) << 1);
+		final List<ObserverRegistry<O>> created = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+		{
+			created.add(new ObserverRegistry<>(registrationMode));
+		}
+		this.shards = List.copyOf(created);
+	}
+
+	/**
+	 * Gets the number of shards
+	 *
+	 * @return the number of shards
+	 */
+	public int getShardCount()
+	{
+		return shards.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean add(final @NonNull O observer)
+	{
+		return shardOf(observer).add(observer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean addAll(final @NonNull Collection<? extends O> observers)
+	{
+		boolean changed = false;
+		for (final O observer : observers)
+		{
+			changed |= add(observer);
+		}
+		return changed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean remove(final Object observer)
+	{
+		return observer != null && shardOf(observer).remove(observer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean removeAll(final @NonNull Collection<?> observers)
+	{
+		boolean changed = false;
+		for (final Object observer : observers)
+		{
+			changed |= remove(observer);
+		}
+		return changed;
+	}
+
+	/**
+	 * Removes all observers from this registry The shards are cleared one after the other, so an
+	 * observer that is added concurrently may be kept
+	 */
+	@Override
+	public void clear()
+	{
+		for (final ObserverRegistry<O> shard : shards)
+		{
+			shard.clear();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(final Object observer)
+	{
+		return observer != null && shardOf(observer).contains(observer);
+	}
+
+	/**
+	 * Gets the immutable snapshot of the observers of all shards in the order of the shards The
+	 * returned list reflects the state of every shard at the time it was read and is not affected by
+	 * later mutations
+	 *
+	 * @return the immutable snapshot of the registered observers
+	 */
+	@Override
+	public List<O> getObservers()
+	{
+		final ShardedSnapshot<O> current = snapshot;
+		if (current != null && current.isCurrent(shards))
+		{
+			final List<O> observers = current.get();
+			if (observers != null)
+			{
+				return observers;
+			}
+		}
+		return publish();
+	}
+
+	/**
+	 * Gets the version of the registered observers, which is the sum of the versions of the shards
+	 * and therefore changes whenever a shard changes
+	 *
+	 * @return the current version of the registered observers
+	 */
+	@Override
+	public long getVersion()
+	{
+		long sum = 0L;
+		for (int i = 0; i < shards.size(); i++)
+		{
+			sum += shards.get(i).getVersion();
+		}
+		return sum;
+	}
+
+	/**
+	 * Flattens the snapshots of the shards into a new snapshot if a shard has changed or the weakly
+	 * cached snapshot was garbage collected
+	 *
+	 * @return the current snapshot
+	 */
+	private synchronized List<O> publish()
+	{
+		final ShardedSnapshot<O> current = snapshot;
+		if (current != null && current.isCurrent(shards))
+		{
+			final List<O> observers = current.get();
+			if (observers != null)
+			{
+				return observers;
+			}
+		}
+		final long[] versions = new long[shards.size()];
+		final List<O> flattened = new ArrayList<>();
+		for (int i = 0; i < versions.length; i++)
+		{
+			final ObserverRegistry<O> shard = shards.get(i);
+			versions[i] = shard.getVersion();
+			flattened.addAll(shard.getObservers());
+		}
+		final List<O> observers = List.copyOf(flattened);
+		snapshot = new ShardedSnapshot<>(versions, observers,
+			getRegistrationMode() == RegistrationMode.WEAK);
+		return observers;
+	}
+
+	/**
+	 * Gets the shard that holds the given observer
+	 *
+	 * @param observer
+	 *            the observer
+	 * @return the shard of the observer
+	 */
+	private ObserverRegistry<O> shardOf(final Object observer)
+	{
+		final int hash = getRegistrationMode() == RegistrationMode.EQUALITY
+			? observer.hashCode()
+			: System.identityHashCode(observer);
+		return shards.get((hash ^ (hash >>> 16)) & (shards.size() - 1));
+	}
+
+	/**
+	 * The flattened snapshot of the shards together with the versions of the shards it was built
+	 * from
+	 *
+	 * @param <O>
+	 *            the generic type of the observer
+	 */
+	private static final class ShardedSnapshot<O>
+	{
+
+		/** The versions of the shards when the snapshot was built */
+		private final long[] versions;
+
+		/** The strongly held snapshot, null if the snapshot is only weakly cached */
+		private final List<O> observers;
+
+		/** The weakly cached snapshot, null if the snapshot is strongly held */
+		private final Reference<List<O>> weakObservers;
+
+		/**
+		 * Instantiates a new {@link ShardedSnapshot}
+		 *
+		 * @param versions
+		 *            the versions of the shards when the snapshot was built
+		 * @param observers
+		 *            the flattened snapshot of the shards
+		 * @param weak
+		 *            true if the snapshot is only weakly cached
+		 */
+		ShardedSnapshot(final long[] versions, final List<O> observers, final boolean weak)
+		{
+			this.versions = versions;
+			this.observers = weak ? null : observers;
+			this.weakObservers = weak ? new WeakReference<>(observers) : null;
+		}
+
+		/**
+		 * Gets the flattened snapshot
+		 *
+		 * @return the flattened snapshot, null if the weakly cached snapshot was garbage collected
+		 */
+		List<O> get()
+		{
+			return weakObservers != null ? weakObservers.get() : observers;
+		}
+
+		/**
+		 * Checks if no shard has changed since this snapshot was built
+		 *
+		 * @param shards
+		 *            the shards
+		 * @return true if every shard still has the version this snapshot was built from
+		 */
+		boolean isCurrent(final List<ObserverRegistry<O>> shards)
+		{
+			for (int i = 0; i < versions.length; i++)
+			{
+				if (shards.get(i).getVersion() != versions[i])
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,298 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The class {@link SubscriptionIndex} routes values only to the listeners that subscribed for them
+ * The key of every value is computed with a key extractor and looked up in a hash index, so the
+ * cost of a dispatch grows with the number of matching listeners and not with the number of all
+ * subscriptions
+ *
+ * <p>
+ * Listeners that cannot be expressed by a key subscribe with a predicate, these subscriptions are
+ * tested one after the other on every dispatch Subscriptions are mutated under the monitor of this
+ * index, while a dispatch reads the index without any locking
+ * </p>
+ *
+ * @param <K>
+ *            the generic type of the key
+ * @param <T>
+ *            the generic type of the routed values
+ * @param <L>
+ *            the generic type of the listener
+ */
+public class SubscriptionIndex<K, T, L>
+{
+
+	/** The function that computes the key of a value */
+	@Getter
+	private final Function<? super T, ? extends K> keyExtractor;
+
+	/** The mode that decides how the listeners of one key are identified */
+	@Getter
+	private final RegistrationMode registrationMode;
+
+	/** The listeners by the key they subscribed for */
+	private final Map<K, ObserverRegistry<L>> keyedListeners = new ConcurrentHashMap<>();
+
+	/** The subscriptions with a predicate that are tested on every dispatch */
+	private final ObserverRegistry<FilteredListener<T, L>> filteredListeners = new ObserverRegistry<>(
+		RegistrationMode.IDENTITY);
+
+	/**
+	 * Instantiates a new {@link SubscriptionIndex} with the given key extractor that identifies
+	 * listeners by equality
+	 *
+	 * @param keyExtractor
+	 *            the function that computes the key of a value
+	 */
+	public SubscriptionIndex(final @NonNull Function<? super T, ? extends K> keyExtractor)
+	{
+		this(keyExtractor, RegistrationMode.EQUALITY);
+	}
+
+	/**
+	 * Instantiates a new {@link SubscriptionIndex} with the given key extractor and registration
+	 * mode
+	 *
+	 * @param keyExtractor
+	 *            the function that computes the key of a value
+	 * @param registrationMode
+	 *            the mode that decides how the listeners of one key are identified
+	 */
+	public SubscriptionIndex(final @NonNull Function<? super T, ? extends K> keyExtractor,
+		final @NonNull RegistrationMode registrationMode)
+	{
+		this.keyExtractor = keyExtractor;
+		this.registrationMode = registrationMode;
+	}
+
+	/**
+	 * Subscribes the given listener for all values with the given key
+	 *
+	 * @param key
+	 *            the key of the values
+	 * @param listener
+	 *            the listener
+	 * @return true if the listener was subscribed, false if it was already subscribed for the key
+	 */
+	public synchronized boolean subscribe(final @NonNull K key, final @NonNull L listener)
+	{
+		return keyedListeners.computeIfAbsent(key, k -> new ObserverRegistry<>(registrationMode))
+			.add(listener);
+	}
+
+	/**
+	 * Unsubscribes the given listener from the values with the given key
+	 *
+	 * @param key
+	 *            the key of the values
+	 * @param listener
+	 *            the listener
+	 * @return true if the listener was unsubscribed
+	 */
+	public synchronized boolean unsubscribe(final @NonNull K key, final L listener)
+	{
+		final ObserverRegistry<L> listeners = keyedListeners.get(key);
+		if (listeners == null || !listeners.remove(listener))
+		{
+			return false;
+		}
+		if (listeners.isEmpty())
+		{
+			keyedListeners.remove(key);
+		}
+		return true;
+	}
+
+	/**
+	 * Subscribes the given listener for all values that match the given predicate
+	 *
+	 * @param filter
+	 *            the predicate that a value must match
+	 * @param listener
+	 *            the listener
+	 */
+	public synchronized void subscribeMatching(final @NonNull Predicate<? super T> filter,
+		final @NonNull L listener)
+	{
+		filteredListeners.add(new FilteredListener<>(filter, listener));
+	}
+
+	/**
+	 * Unsubscribes all predicate subscriptions of the given listener
+	 *
+	 * @param listener
+	 *            the listener
+	 * @return true if at least one subscription was removed
+	 */
+	public synchronized boolean unsubscribeMatching(final L listener)
+	{
+		boolean changed = false;
+		for (final FilteredListener<T, L> filteredListener : filteredListeners.getObservers())
+		{
+			if (filteredListener.listener.equals(listener))
+			{
+				changed |= filteredListeners.remove(filteredListener);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Invokes the given action for every listener that subscribed for the given value, first for
+	 * the listeners of its key and then for the matching predicate subscriptions
+	 *
+	 * @param value
+	 *            the value to route
+	 * @param action
+	 *            the action that notifies a listener with the value
+	 */
+	public void dispatch(final T value, final BiConsumer<? super L, ? super T> action)
+	{
+		final ObserverRegistry<L> listeners = listenersOf(value);
+		if (listeners != null)
+		{
+			final List<L> keyed = listeners.getObservers();
+			final int size = keyed.size();
+			for (int i = 0; i < size; i++)
+			{
+				action.accept(keyed.get(i), value);
+			}
+		}
+		final List<FilteredListener<T, L>> filtered = filteredListeners.getObservers();
+		final int size = filtered.size();
+		for (int i = 0; i < size; i++)
+		{
+			final FilteredListener<T, L> filteredListener = filtered.get(i);
+			if (filteredListener.filter.test(value))
+			{
+				action.accept(filteredListener.listener, value);
+			}
+		}
+	}
+
+	/**
+	 * Gets the listeners that subscribed for the given value in the order they would be notified
+	 * by {@link #dispatch(Object, BiConsumer)}
+	 *
+	 * @param value
+	 *            the value to route
+	 * @return the list of the matching listeners
+	 */
+	public List<L> getListeners(final T value)
+	{
+		final ObserverRegistry<L> listeners = listenersOf(value);
+		final List<FilteredListener<T, L>> filtered = filteredListeners.getObservers();
+		if (filtered.isEmpty())
+		{
+			return listeners != null ? listeners.getObservers() : List.of();
+		}
+		final List<L> matching = new ArrayList<>();
+		if (listeners != null)
+		{
+			matching.addAll(listeners.getObservers());
+		}
+		for (final FilteredListener<T, L> filteredListener : filtered)
+		{
+			if (filteredListener.filter.test(value))
+			{
+				matching.add(filteredListener.listener);
+			}
+		}
+		return matching;
+	}
+
+	/**
+	 * Checks if no listener is subscribed
+	 *
+	 * @return true if no listener is subscribed, otherwise false
+	 */
+	public boolean isEmpty()
+	{
+		return keyedListeners.isEmpty() && filteredListeners.isEmpty();
+	}
+
+	/**
+	 * Gets the listeners of the key of the given value
+	 *
+	 * @param value
+	 *            the value
+	 * @return the listeners of the key, or null if none subscribed for it
+	 */
+	private ObserverRegistry<L> listenersOf(final T value)
+	{
+		if (keyedListeners.isEmpty())
+		{
+			return null;
+		}
+		final K key = keyExtractor.apply(value);
+		return key != null ? keyedListeners.get(key) : null;
+	}
+
+	/**
+	 * A listener that subscribed with a predicate
+	 *
+	 * @param <T>
+	 *            the generic type of the routed values
+	 * @param <L>
+	 *            the generic type of the listener
+	 */
+	private static final class FilteredListener<T, L>
+	{
+
+		/** The predicate that a value must match */
+		final Predicate<? super T> filter;
+
+		/** The listener */
+		final L listener;
+
+		/**
+		 * Instantiates a new {@link FilteredListener}
+		 *
+		 * @param filter
+		 *            the predicate that a value must match
+		 * @param listener
+		 *            the listener
+		 */
+		FilteredListener(final Predicate<? super T> filter, final L listener)
+		{
+			this.filter = filter;
+			this.listener = listener;
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+/**
+ * Provides classes for holding the registered observers of a subject
+ *
+ * <p>
+ * The registered observers are published as immutable snapshots, so that subjects can notify their
+ * observers without holding a lock while other threads add or remove observers.
+ * </p>
+ *
+ * <p>
+ * The key classes in this package include:
+ * </p>
+ * <ul>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.registry.CombinedSnapshot} - Concatenates
+ * two snapshots of observers, so both are notified in one dispatch</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.registry.ObserverRegistry} - Holds the
+ * registered observers and publishes them as an immutable snapshot</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.registry.RegistrationMode} - Decides if
+ * observers are identified by equality or by identity, and if they are weakly referenced</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.registry.ShardedObserverRegistry} - Hashes
+ * the registered observers into independently locked shards</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.registry.SubscriptionIndex} - Routes
+ * values only to the listeners that subscribed for their key or match a predicate</li>
+ * <li>{@link io.github.astrapi69.design.pattern.observer.registry.DispatchMode} - Decides if a
+ * subject notifies its observers while holding its monitor or from a lock free snapshot</li>
+ * </ul>
+ */
+package io.github.astrapi69.design.pattern.observer.registry;
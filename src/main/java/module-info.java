@@ -20,13 +20,20 @@
  */
 module io.github.astrapisixtynine.design.patterns.observer
 {
+	requires java.management;
 	requires static lombok;
 
 	exports io.github.astrapi69.design.pattern.observer;
 	exports io.github.astrapi69.design.pattern.observer.api;
 	exports io.github.astrapi69.design.pattern.observer.chat;
 	exports io.github.astrapi69.design.pattern.observer.chat.listener;
+	exports io.github.astrapi69.design.pattern.observer.collection;
+	exports io.github.astrapi69.design.pattern.observer.dispatch;
 	exports io.github.astrapi69.design.pattern.observer.event;
 	exports io.github.astrapi69.design.pattern.observer.exception;
 	exports io.github.astrapi69.design.pattern.observer.exception.handlers;
+	exports io.github.astrapi69.design.pattern.observer.flow;
+	exports io.github.astrapi69.design.pattern.observer.metrics;
+	exports io.github.astrapi69.design.pattern.observer.primitive;
+	exports io.github.astrapi69.design.pattern.observer.registry;
 }
\ No newline at end of file
@@ -0,0 +1,259 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2022 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.design.pattern.observer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import io.github.astrapi69.design.pattern.observer.api.Observer;
+import io.github.astrapi69.design.pattern.observer.chat.ChatRoom;
+import io.github.astrapi69.design.pattern.observer.chat.ChatRoomUser;
+import io.github.astrapi69.design.pattern.observer.chat.StringMessage;
+import io.github.astrapi69.design.pattern.observer.chat.User;
+import io.github.astrapi69.design.pattern.observer.chat.listener.MessageSubject;
+import io.github.astrapi69.design.pattern.observer.event.EventSubject;
+import io.github.astrapi69.design.pattern.observer.registry.DispatchMode;
+import io.github.astrapi69.design.pattern.observer.registry.RegistrationMode;
+
+/**
+ * The test class {@link DispatchAllocationTest} measures the bytes that the steady state dispatch
+ * path of the subjects allocates with
+ * {@link ThreadMXBean#getThreadAllocatedBytes(long)} and fails the build if a publish allocates
+ */
+class DispatchAllocationTest
+{
+
+	/** The number of publishes that warm up the dispatch path before it is measured */
+	private static final int WARM_UP_PUBLISHES = 200_000;
+
+	/** The number of publishes that are measured */
+	private static final int MEASURED_PUBLISHES = 100_000;
+
+	/**
+	 * The number of bytes that the measurement itself may allocate, less than one byte per publish
+	 * so that every allocation on the dispatch path fails the test
+	 */
+	private static final long ALLOWED_BYTES = MEASURED_PUBLISHES - 1;
+
+	/** The number of observers of every subject */
+	private static final int OBSERVER_COUNT = 10;
+
+	/** The bean that measures the bytes allocated by the current thread */
+	private static final ThreadMXBean THREAD_MX_BEAN = (ThreadMXBean)ManagementFactory
+		.getThreadMXBean();
+
+	/** The boxed value that is published, so the publish does not box */
+	private static final Integer VALUE = 42;
+
+	/** The number of received notifications, so the notifications are not optimized away */
+	private long notifications;
+
+	/**
+	 * Enables the measurement of the allocated bytes or skips the tests if the virtual machine does
+	 * not support it
+	 */
+	@BeforeAll
+	static void enableThreadAllocatedMemory()
+	{
+		assumeTrue(THREAD_MX_BEAN.isThreadAllocatedMemorySupported(),
+			"the virtual machine does not measure the allocated bytes of a thread");
+		THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	/**
+	 * Test method for {@link AbstractSubject#setObservable(Object)} in the mode
+	 * {@link DispatchMode#SYNCHRONIZED}
+	 */
+	@Test
+	void testSetObservable()
+	{
+		final AbstractSubject<Integer, Observer<Integer>> subject = newSubject(
+			DispatchMode.SYNCHRONIZED);
+		assertAllocationFree(() -> subject.setObservable(VALUE));
+	}
+
+	/**
+	 * Test method for {@link AbstractSubject#setObservable(Object)} in the mode
+	 * {@link DispatchMode#COPY_ON_WRITE}
+	 */
+	@Test
+	void testSetObservableCopyOnWrite()
+	{
+		final AbstractSubject<Integer, Observer<Integer>> subject = newSubject(
+			DispatchMode.COPY_ON_WRITE);
+		assertAllocationFree(() -> subject.setObservable(VALUE));
+	}
+
+	/**
+	 * Test method for {@link AbstractSubject#updateObservers()}
+	 */
+	@Test
+	void testUpdateObservers()
+	{
+		final AbstractSubject<Integer, Observer<Integer>> subject = newSubject(
+			DispatchMode.SYNCHRONIZED);
+		subject.setObservable(VALUE);
+		assertAllocationFree(subject::updateObservers);
+	}
+
+	/**
+	 * Test method for {@link KeyedSubject#setObservable(Object)} with observers that subscribed for
+	 * the key of the observable
+	 */
+	@Test
+	void testKeyedSetObservable()
+	{
+		final KeyedSubject<Integer, Integer, Observer<Integer>> subject = new KeyedSubject<>(
+			Function.identity());
+		for (int i = 0; i < OBSERVER_COUNT; i++)
+		{
+			subject.subscribe(VALUE, value -> notifications++);
+		}
+		assertAllocationFree(() -> subject.setObservable(VALUE));
+	}
+
+	/**
+	 * Test method for {@link EventSubject#fireEvent(Object)}
+	 */
+	@Test
+	void testFireEvent()
+	{
+		final EventSubject<Integer> subject = new EventSubject<>();
+		for (int i = 0; i < OBSERVER_COUNT; i++)
+		{
+			subject.add(event -> notifications++);
+		}
+		assertAllocationFree(() -> subject.fireEvent(VALUE));
+	}
+
+	/**
+	 * Test method for {@link MessageSubject#fireMessage(Object)}
+	 */
+	@Test
+	void testFireMessage()
+	{
+		final MessageSubject<Integer> subject = new MessageSubject<>();
+		for (int i = 0; i < OBSERVER_COUNT; i++)
+		{
+			subject.add(message -> notifications++);
+		}
+		assertAllocationFree(() -> subject.fireMessage(VALUE));
+	}
+
+	/**
+	 * Test method for {@link ChatRoom#getChatRoomUsers()} on a chat room with weakly registered users
+	 * while no user joins or leaves
+	 */
+	@Test
+	void testGetChatRoomUsers()
+	{
+		final ChatRoom<StringMessage> chatRoom = new ChatRoom<>(null, "allocation",
+			RegistrationMode.WEAK);
+		final List<ChatRoomUser<StringMessage>> users = new ArrayList<>();
+		for (int i = 0; i < OBSERVER_COUNT; i++)
+		{
+			users.add(new ChatRoomUser<>(chatRoom, new User("user" + i, i))
+			{
+
+				/** The serialVersionUID for serialization compatibility */
+				private static final long serialVersionUID = 1L;
+
+				/**
+				 * {@inheritDoc}
+				 */
+				@Override
+				public void update(final StringMessage observable)
+				{
+				}
+
+				/**
+				 * {@inheritDoc}
+				 */
+				@Override
+				public void execute()
+				{
+				}
+			});
+		}
+		assertAllocationFree(() -> notifications += chatRoom.getChatRoomUsers().size());
+		assertEquals(users.size(), chatRoom.getChatRoomUsers().size());
+	}
+
+	/**
+	 * Creates a new subject with the given dispatch mode and registers the observers
+	 *
+	 * @param dispatchMode
+	 *            the dispatch mode of the subject
+	 * @return the new subject
+	 */
+	private AbstractSubject<Integer, Observer<Integer>> newSubject(
+		final DispatchMode dispatchMode)
+	{
+		final AbstractSubject<Integer, Observer<Integer>> subject = new AbstractSubject<>(
+			dispatchMode)
+		{
+		};
+		for (int i = 0; i < OBSERVER_COUNT; i++)
+		{
+			subject.add(value -> notifications++);
+		}
+		return subject;
+	}
+
+	/**
+	 * Warms up the given publish and asserts that the measured publishes allocate no bytes
+	 *
+	 * @param publish
+	 *            the publish to measure
+	 */
+	private void assertAllocationFree(final Runnable publish)
+	{
+		for (int i = 0; i < WARM_UP_PUBLISHES; i++)
+		{
+			publish.run();
+		}
+		final long threadId = Thread.currentThread().getId();
+		final long before = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < MEASURED_PUBLISHES; i++)
+		{
+			publish.run();
+		}
+		final long allocated = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - before;
+		assertTrue(allocated <= ALLOWED_BYTES, "expected an allocation free dispatch path but "
+			+ MEASURED_PUBLISHES + " publishes allocated " + allocated + " bytes");
+	}
+
+}